@@ -0,0 +1,122 @@
+package com.blogapp.blogapp.benchmark;
+
+import java.lang.reflect.Constructor;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.mockito.Mockito;
+import org.springframework.beans.BeanUtils;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.blogapp.blogapp.entity.Blog;
+import com.blogapp.blogapp.entity.Comment;
+import com.blogapp.blogapp.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Deterministic fixtures shared by the benchmarks
+ */
+public final class BenchmarkData {
+
+    private static final String PARAGRAPH = "Spring Boot makes it easy to create stand-alone, production-grade "
+            + "applications that you can just run. Most applications need very little configuration. ";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * ObjectMapper configured the way Spring Boot configures the application one
+     */
+    public static ObjectMapper objectMapper() {
+        return objectMapper(Jackson2ObjectMapperBuilder.json());
+    }
+
+    /**
+     * Same configuration for another format, e.g. {@code Jackson2ObjectMapperBuilder.cbor()}
+     */
+    public static ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("author" + id + "@example.com");
+        user.setPassword("{noop}password");
+        user.setFirstName("Author");
+        user.setLastName("Number" + id);
+        user.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        user.setUpdatedAt(LocalDateTime.of(2025, 1, 2, 12, 0));
+        return user;
+    }
+
+    /**
+     * Build a blog whose content is roughly {@code contentLength} characters long
+     */
+    public static Blog blog(long id, User author, int contentLength) {
+        StringBuilder content = new StringBuilder(contentLength + PARAGRAPH.length());
+        while (content.length() < contentLength) {
+            content.append(PARAGRAPH);
+        }
+
+        Blog blog = new Blog();
+        blog.setId(id);
+        blog.setTitle("Benchmark post number " + id);
+        blog.setContent(content.substring(0, contentLength));
+        blog.setViewCount(id * 17);
+        blog.setAuthor(author);
+        blog.setCreatedAt(LocalDateTime.of(2025, 3, 1, 9, 30).plusMinutes(id));
+        blog.setUpdatedAt(LocalDateTime.of(2025, 3, 2, 9, 30).plusMinutes(id));
+        return blog;
+    }
+
+    public static List<Blog> blogs(int count, int contentLength) {
+        List<Blog> blogs = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            blogs.add(blog(i, user(i % 5 + 1), contentLength));
+        }
+        return blogs;
+    }
+
+    public static Comment comment(long id, Blog blog, User author) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setContent("Great write-up, thanks for sharing! Comment " + id);
+        comment.setBlog(blog);
+        comment.setAuthor(author);
+        comment.setIsEdited(false);
+        comment.setCreatedAt(LocalDateTime.of(2025, 3, 3, 10, 0));
+        comment.setUpdatedAt(LocalDateTime.of(2025, 3, 3, 10, 0));
+        return comment;
+    }
+
+    /**
+     * A Mockito mock that keeps no record of its invocations, which would pile up over a
+     * benchmark run
+     */
+    public static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+    /**
+     * Build a component through its constructor, passing the given collaborators where their
+     * type fits and a stub everywhere else, so adding a dependency to the component
+     * does not break the benchmark
+     */
+    public static <T> T withMocks(Class<T> type, Object... collaborators) {
+        Constructor<T> constructor = BeanUtils.getResolvableConstructor(type);
+        Object[] arguments = Arrays.stream(constructor.getParameterTypes())
+                .map(parameterType -> Arrays.stream(collaborators)
+                        .filter(parameterType::isInstance)
+                        .findFirst()
+                        .orElseGet(() -> stub(parameterType)))
+                .toArray();
+        return BeanUtils.instantiateClass(constructor, arguments);
+    }
+}
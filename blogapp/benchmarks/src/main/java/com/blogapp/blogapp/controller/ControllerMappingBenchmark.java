@@ -0,0 +1,60 @@
+package com.blogapp.blogapp.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blogapp.blogapp.benchmark.BenchmarkData;
+import com.blogapp.blogapp.dto.BlogMapper;
+import com.blogapp.blogapp.dto.BlogResponse;
+import com.blogapp.blogapp.dto.BlogSummaryResponse;
+import com.blogapp.blogapp.entity.Blog;
+
+/**
+ * Entity to DTO mapping done by BlogController and content type lookup done by ImageController
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerMappingBenchmark {
+
+    @Param({"500", "20000"})
+    private int contentLength;
+
+    private ImageController imageController;
+    private Blog blog;
+
+    @Setup
+    public void setUp() {
+        imageController = new ImageController();
+        blog = BenchmarkData.blog(42, BenchmarkData.user(7), contentLength);
+    }
+
+    @Benchmark
+    public BlogSummaryResponse convertToBlogSummaryResponse() {
+        return BlogMapper.toBlogSummaryResponse(blog);
+    }
+
+    @Benchmark
+    public BlogResponse convertToBlogResponse() {
+        return BlogMapper.toBlogResponse(blog);
+    }
+
+    @Benchmark
+    public String determineContentType() {
+        return imageController.determineContentType("3f2c9a52-0d7e-4c55-a8f7-52e7f0b1c9d4.JPEG");
+    }
+}
@@ -0,0 +1,85 @@
+package com.blogapp.blogapp.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.blogapp.blogapp.benchmark.BenchmarkData;
+import com.blogapp.blogapp.dto.BlogMapper;
+import com.blogapp.blogapp.dto.BlogSummaryResponse;
+import com.blogapp.blogapp.entity.Blog;
+import com.blogapp.blogapp.service.BlogService;
+
+/**
+ * End-to-end in-process throughput of the public blog endpoints: request dispatch,
+ * argument resolution, mapping and JSON rendering, with the services replaced by mocks
+ * returning fixed data
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class MockMvcThroughputBenchmark {
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        List<Blog> blogs = BenchmarkData.blogs(10, 2000);
+        Blog single = BenchmarkData.blog(1, BenchmarkData.user(1), 8000);
+
+        // getBlogVersion is left unstubbed: without a version every request is answered in full
+        BlogService blogService = BenchmarkData.stub(BlogService.class);
+        when(blogService.getAllBlogs(any(), anyString()))
+                .thenAnswer(invocation -> new PageImpl<>(blogs, invocation.getArgument(0), 1000));
+        when(blogService.withCommentCounts(any(Page.class)))
+                .thenAnswer(invocation -> invocation.<Page<BlogSummaryResponse>>getArgument(0));
+        when(blogService.getBlogResponseAndIncrementViews(any(), any()))
+                .thenAnswer(invocation -> Optional.of(BlogMapper.toBlogResponse(single)));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(BenchmarkData.withMocks(BlogController.class, blogService))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(BenchmarkData.objectMapper()))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] getAllBlogs() throws Exception {
+        return mockMvc.perform(get("/api/blogs").param("page", "0").param("size", "10"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getBlogById() throws Exception {
+        return mockMvc.perform(get("/api/blogs/1"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+}
@@ -0,0 +1,87 @@
+package com.blogapp.blogapp.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.blogapp.blogapp.benchmark.BenchmarkData;
+import com.blogapp.blogapp.dto.BlogMapper;
+import com.blogapp.blogapp.dto.BlogSummaryResponse;
+import com.blogapp.blogapp.dto.PageResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Encoding of a feed page per negotiated format: the former PageImpl JSON against the
+ * PageResponse envelope in JSON, CBOR and Smile. The encoded and gzipped sizes of each
+ * combination are logged when the trial starts.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    @Param({"pageimpl-json", "json", "cbor", "smile"})
+    private String encoding;
+
+    @Param({"10", "50"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Object body;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<BlogSummaryResponse> content = BenchmarkData.blogs(pageSize, 2000).stream()
+                .map(BlogMapper::toBlogSummaryResponse)
+                .toList();
+        Page<BlogSummaryResponse> page = new PageImpl<>(content, PageRequest.of(0, pageSize), 1000);
+
+        body = "pageimpl-json".equals(encoding) ? page : PageResponse.of(page);
+        objectMapper = switch (encoding) {
+            case "cbor" -> BenchmarkData.objectMapper(Jackson2ObjectMapperBuilder.cbor());
+            case "smile" -> BenchmarkData.objectMapper(Jackson2ObjectMapperBuilder.smile());
+            default -> BenchmarkData.objectMapper();
+        };
+
+        byte[] encoded = encode();
+        log.info("{}, {} posts: {} bytes, {} gzipped", encoding, pageSize, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
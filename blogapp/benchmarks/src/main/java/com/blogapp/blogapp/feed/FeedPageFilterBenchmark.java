@@ -0,0 +1,106 @@
+package com.blogapp.blogapp.feed;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.blogapp.blogapp.benchmark.BenchmarkData;
+import com.blogapp.blogapp.entity.Blog;
+import com.blogapp.blogapp.service.BlogService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+/**
+ * A front page request answered by {@link FeedPageFilter} from the pre-serialized feed pages;
+ * compare with MockMvcThroughputBenchmark.getAllBlogs, which maps and serializes every time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedPageFilterBenchmark {
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    private FeedPageFilter filter;
+
+    @Setup
+    public void setUp() {
+        List<Blog> blogs = BenchmarkData.blogs(30, 2000);
+        BlogService blogService = BenchmarkData.stub(BlogService.class);
+        when(blogService.getAllBlogs(any(), anyString()))
+                .thenAnswer(invocation -> new PageImpl<>(blogs, invocation.getArgument(0), 1000));
+        when(blogService.withCommentCounts(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        FeedPageCache cache = new FeedPageCache(blogService, BenchmarkData.objectMapper(), null, 3, 10, new SimpleMeterRegistry());
+        cache.rebuild();
+        filter = new FeedPageFilter(cache);
+    }
+
+    @Benchmark
+    public byte[] frontPage() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/blogs");
+        request.addParameter("page", "0");
+        request.addParameter("size", "10");
+        request.addParameter("sortBy", "date");
+        request.addHeader("Accept", "application/json, text/plain, */*");
+        if ("gzip".equals(encoding)) {
+            request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(8192);
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            // The mock streams write byte by byte, unlike the container's
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new ServletOutputStream() {
+                    @Override
+                    public void write(int b) {
+                        body.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] bytes, int offset, int length) {
+                        body.write(bytes, offset, length);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                    }
+                };
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain());
+        return body.toByteArray();
+    }
+}
@@ -0,0 +1,48 @@
+package com.blogapp.blogapp.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blogapp.blogapp.benchmark.BenchmarkData;
+import com.blogapp.blogapp.dto.CommentResponse;
+import com.blogapp.blogapp.entity.Blog;
+import com.blogapp.blogapp.entity.Comment;
+import com.blogapp.blogapp.entity.User;
+
+/**
+ * Comment to DTO mapping done for every comment of a page
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommentMappingBenchmark {
+
+    private CommentService commentService;
+    private Comment comment;
+
+    @Setup
+    public void setUp() {
+        commentService = new CommentService();
+        User author = BenchmarkData.user(3);
+        Blog blog = BenchmarkData.blog(11, BenchmarkData.user(1), 1000);
+        comment = BenchmarkData.comment(99, blog, author);
+    }
+
+    @Benchmark
+    public CommentResponse convertToResponse() {
+        return commentService.convertToResponse(comment);
+    }
+}
@@ -0,0 +1,206 @@
+package com.blogapp.blogapp.analytics;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.blogapp.util.HyperLogLog;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts distinct viewers per blog with HyperLogLog sketches instead of a row per view.
+ *
+ * <p>Sketches of recently viewed blogs are kept in memory, seeded from
+ * {@code blog_view_sketches} on first use. Changed ones are merged into their row
+ * periodically under a row lock; since merging is idempotent, nodes can flush overlapping
+ * sketches without double counting, and each flush also picks up other nodes' viewers.
+ * Sketches not viewed between two flushes are dropped from memory.
+ */
+@Slf4j
+@Service
+public class UniqueViewerService {
+
+    private static final String INSERT_SQL = "INSERT INTO blog_view_sketches (blog_id, registers, updated_at) "
+            + "SELECT ?, ?, now() WHERE EXISTS (SELECT 1 FROM blogs WHERE id = ?) ON CONFLICT (blog_id) DO NOTHING";
+    private static final String LOCK_SQL = "SELECT blog_id, registers FROM blog_view_sketches WHERE blog_id = ANY (?) FOR UPDATE";
+    private static final String UPDATE_SQL = "UPDATE blog_view_sketches SET registers = ?, updated_at = now() WHERE blog_id = ?";
+
+    private final Map<Long, ViewerSketch> sketches = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.unique-viewers.precision:12}")
+    private int precision;
+
+    public UniqueViewerService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("blogapp.unique_viewers.sketches", List.of(), sketches);
+    }
+
+    /**
+     * Identifies a viewer by account when signed in, otherwise by address and browser.
+     * Only a hash of it ever reaches a sketch.
+     */
+    public static String viewerKey(Principal principal, HttpServletRequest request) {
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        return "client:" + request.getRemoteAddr() + "|" + request.getHeader("User-Agent")
+                + "|" + request.getHeader("Accept-Language");
+    }
+
+    /** Counts the viewer and returns the blog's estimated number of distinct viewers */
+    public long recordView(Long blogId, String viewerKey) {
+        long hash = HyperLogLog.hash(viewerKey);
+        while (true) {
+            ViewerSketch sketch = sketches.get(blogId);
+            if (sketch == null) {
+                // Loaded outside computeIfAbsent so the query never blocks other blogs
+                HyperLogLog stored = load(blogId);
+                sketch = sketches.computeIfAbsent(blogId, id -> new ViewerSketch(stored));
+            }
+            long estimate = sketch.offer(hash);
+            if (estimate >= 0) {
+                return estimate;
+            }
+            // A flush dropped the sketch after it was looked up; count the viewer on its successor
+            sketches.remove(blogId, sketch);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.unique-viewers.flush-interval:30000}")
+    public void flush() {
+        List<Map.Entry<Long, ViewerSketch>> changed = new ArrayList<>();
+        sketches.entrySet().removeIf(entry -> {
+            ViewerSketch sketch = entry.getValue();
+            synchronized (sketch) {
+                if (sketch.dirty) {
+                    changed.add(entry);
+                    return false;
+                }
+                boolean idle = !sketch.touched;
+                sketch.touched = false;
+                sketch.retired = idle;
+                return idle;
+            }
+        });
+        if (changed.isEmpty()) {
+            return;
+        }
+        // Same lock order on every node
+        changed.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+
+        List<Object[]> inserts = new ArrayList<>(changed.size());
+        Map<Long, HyperLogLog> snapshots = new HashMap<>();
+        for (Map.Entry<Long, ViewerSketch> entry : changed) {
+            HyperLogLog snapshot = entry.getValue().takeSnapshot();
+            snapshots.put(entry.getKey(), snapshot);
+            inserts.add(new Object[] {entry.getKey(), snapshot.toBytes(), entry.getKey()});
+        }
+
+        Set<Long> flushed = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                Long[] ids = changed.stream().map(Map.Entry::getKey).toArray(Long[]::new);
+                List<Object[]> updates = new ArrayList<>(changed.size());
+                jdbcTemplate.query(LOCK_SQL, statement -> statement.setArray(1,
+                        statement.getConnection().createArrayOf("bigint", ids)), row -> {
+                    long blogId = row.getLong("blog_id");
+                    HyperLogLog merged = HyperLogLog.fromBytes(row.getBytes("registers"));
+                    merged.merge(snapshots.get(blogId));
+                    updates.add(new Object[] {merged.toBytes(), blogId});
+                    snapshots.put(blogId, merged);
+                    flushed.add(blogId);
+                });
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            });
+        } catch (RuntimeException e) {
+            changed.forEach(entry -> entry.getValue().markDirty());
+            log.warn("Could not flush {} unique viewer sketches, will retry: {}", changed.size(), e.getMessage());
+            return;
+        }
+        // Viewers counted on other nodes show up here from now on; blogs without a row were deleted
+        for (Map.Entry<Long, ViewerSketch> entry : changed) {
+            if (flushed.contains(entry.getKey())) {
+                entry.getValue().absorb(snapshots.get(entry.getKey()));
+            } else {
+                sketches.remove(entry.getKey(), entry.getValue());
+                entry.getValue().retire();
+            }
+        }
+        meterRegistry.counter("blogapp.unique_viewers.flushed").increment(changed.size());
+    }
+
+    private HyperLogLog load(Long blogId) {
+        List<byte[]> stored = jdbcTemplate.query("SELECT registers FROM blog_view_sketches WHERE blog_id = ?",
+                (row, rowNum) -> row.getBytes("registers"), blogId);
+        return stored.isEmpty() ? new HyperLogLog(precision) : HyperLogLog.fromBytes(stored.get(0));
+    }
+
+    private static final class ViewerSketch {
+
+        private final HyperLogLog sketch;
+        private long estimate;
+        private boolean dirty;
+        private boolean touched = true;
+        private boolean retired; // Dropped from the map, so offers to it would be lost
+
+        private ViewerSketch(HyperLogLog sketch) {
+            this.sketch = sketch;
+            this.estimate = sketch.estimate();
+        }
+
+        /** The estimate, or -1 once retired */
+        synchronized long offer(long hash) {
+            if (retired) {
+                return -1;
+            }
+            touched = true;
+            if (sketch.offer(hash)) {
+                dirty = true;
+                estimate = sketch.estimate();
+            }
+            return estimate;
+        }
+
+        synchronized HyperLogLog takeSnapshot() {
+            dirty = false;
+            return sketch.copy();
+        }
+
+        synchronized void retire() {
+            retired = true;
+        }
+
+        synchronized void markDirty() {
+            dirty = true;
+        }
+
+        synchronized void absorb(HyperLogLog merged) {
+            if (sketch.merge(merged)) {
+                estimate = sketch.estimate();
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.blogapp.blogapp.analytics;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.blogapp.dto.BlogStatsResponse;
+import com.blogapp.blogapp.entity.BlogViewRollup.Granularity;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Buffers view events in memory and writes them in batches: per-day upserts into
+ * {@code blog_view_rollups} and one {@code view_count} update per blog, so a popular post
+ * costs one row write per flush instead of one per view. Week and month rows are rebuilt
+ * from the day rows on a schedule, and old day rows are pruned once months cover them.
+ */
+@Slf4j
+@Service
+public class ViewAnalyticsService {
+
+    private static final String UPSERT_DAY_SQL = "INSERT INTO blog_view_rollups (blog_id, granularity, period_start, views) "
+            + "SELECT ?, 'DAY', ?, ? WHERE EXISTS (SELECT 1 FROM blogs WHERE id = ?) "
+            + "ON CONFLICT (blog_id, granularity, period_start) DO UPDATE SET views = blog_view_rollups.views + EXCLUDED.views";
+    private static final String VIEW_COUNT_SQL = "UPDATE blogs SET view_count = view_count + ? WHERE id = ?";
+    /** Formatted with the granularity and the matching date_trunc unit, both constants */
+    private static final String ROLLUP_SQL = "INSERT INTO blog_view_rollups (blog_id, granularity, period_start, views) "
+            + "SELECT blog_id, '%s', date_trunc('%s', period_start)::date, sum(views) FROM blog_view_rollups "
+            + "WHERE granularity = 'DAY' AND period_start >= ? GROUP BY 1, 3 "
+            + "ON CONFLICT (blog_id, granularity, period_start) DO UPDATE SET views = EXCLUDED.views";
+    private static final String PRUNE_SQL = "DELETE FROM blog_view_rollups WHERE granularity = 'DAY' AND period_start < ?";
+    private static final String STATS_SQL = "SELECT period_start, views FROM blog_view_rollups "
+            + "WHERE blog_id = ? AND granularity = ? AND period_start BETWEEN ? AND ? ORDER BY period_start";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+    private final ReentrantReadWriteLock bufferLock = new ReentrantReadWriteLock();
+
+    private volatile Buffer buffer = new Buffer();
+    /** Views taken out of the buffer but not committed yet, still counted as pending */
+    private volatile Buffer flushing;
+
+    @Value("${app.analytics.rollup-lookback-days:1}")
+    private int rollupLookbackDays;
+
+    @Value("${app.analytics.day-retention-days:400}")
+    private int dayRetentionDays;
+
+    public ViewAnalyticsService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Buffers one view; returns this node's views of the blog not yet added to view_count */
+    public long recordView(Long blogId) {
+        bufferLock.readLock().lock();
+        try {
+            Buffer current = buffer;
+            current.dayViews.computeIfAbsent(new BlogDay(blogId, LocalDate.now()), key -> new LongAdder()).increment();
+            LongAdder views = current.views.computeIfAbsent(blogId, key -> new LongAdder());
+            views.increment();
+            Buffer inFlight = flushing;
+            return views.sum() + (inFlight == null ? 0 : inFlight.viewsOf(blogId));
+        } finally {
+            bufferLock.readLock().unlock();
+        }
+    }
+
+    /** This node's views of the blog not yet added to view_count, without counting one */
+    public long pendingViews(Long blogId) {
+        bufferLock.readLock().lock();
+        try {
+            LongAdder views = buffer.views.get(blogId);
+            Buffer inFlight = flushing;
+            return (views == null ? 0 : views.sum()) + (inFlight == null ? 0 : inFlight.viewsOf(blogId));
+        } finally {
+            bufferLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.flush-interval:10000}")
+    public void flush() {
+        Buffer full;
+        bufferLock.writeLock().lock();
+        try {
+            full = buffer;
+            if (full.views.isEmpty()) {
+                return;
+            }
+            flushing = full;
+            buffer = new Buffer();
+        } finally {
+            bufferLock.writeLock().unlock();
+        }
+
+        // Sorted, so concurrent flushes from several nodes lock rows in the same order
+        List<Object[]> dayRows = new ArrayList<>();
+        full.dayViews.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(BlogDay::blogId).thenComparing(BlogDay::day)))
+                .forEach(entry -> dayRows.add(new Object[] {
+                        entry.getKey().blogId(), entry.getKey().day(), entry.getValue().sum(), entry.getKey().blogId()}));
+        List<Object[]> viewCounts = new ArrayList<>();
+        full.views.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> viewCounts.add(new Object[] {entry.getValue().sum(), entry.getKey()}));
+
+        try {
+            writeTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(VIEW_COUNT_SQL, viewCounts);
+                jdbcTemplate.batchUpdate(UPSERT_DAY_SQL, dayRows);
+            });
+            meterRegistry.counter("blogapp.analytics.views.flushed").increment(full.total());
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} buffered views, will retry: {}", full.total(), e.getMessage());
+            requeue(full);
+        } finally {
+            flushing = null;
+        }
+    }
+
+    /** Rebuilds the week and month rows touched by recent days, then prunes old day rows */
+    @Scheduled(cron = "${app.analytics.rollup-cron:0 15 * * * *}")
+    public void rollup() {
+        LocalDate since = LocalDate.now().minusDays(rollupLookbackDays);
+        writeTransaction.executeWithoutResult(status -> {
+            rollup(Granularity.WEEK, "week", since);
+            rollup(Granularity.MONTH, "month", since);
+            // Whole months only, so every pruned day is already in a month row
+            LocalDate pruneBefore = LocalDate.now().minusDays(dayRetentionDays).withDayOfMonth(1);
+            int pruned = jdbcTemplate.update(PRUNE_SQL, pruneBefore);
+            log.debug("Rolled up views since {}, pruned {} day rows before {}", since, pruned, pruneBefore);
+        });
+    }
+
+    /**
+     * Views per period for periods starting between {@code from} (truncated to the period)
+     * and {@code to}. Without a granularity, ranges up to a quarter are returned by day,
+     * up to two years by week, longer ones by month.
+     */
+    public BlogStatsResponse getStats(Long blogId, LocalDate from, LocalDate to, Granularity granularity) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        Granularity resolved = granularity != null ? granularity : granularityFor(from, to);
+        LocalDate start = periodStart(resolved, from);
+
+        List<BlogStatsResponse.Point> points = readOnlyTransaction.execute(status -> jdbcTemplate.query(STATS_SQL,
+                (row, rowNum) -> new BlogStatsResponse.Point(row.getObject("period_start", LocalDate.class), row.getLong("views")),
+                blogId, resolved.name(), start, to));
+        long total = points.stream().mapToLong(BlogStatsResponse.Point::getViews).sum();
+        return new BlogStatsResponse(blogId, from, to, resolved.name().toLowerCase(), total, points);
+    }
+
+    static Granularity granularityFor(LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days <= 92) {
+            return Granularity.DAY;
+        }
+        return days <= 731 ? Granularity.WEEK : Granularity.MONTH;
+    }
+
+    static LocalDate periodStart(Granularity granularity, LocalDate day) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.minusDays(day.getDayOfWeek().getValue() - 1L);
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    private void rollup(Granularity granularity, String unit, LocalDate since) {
+        jdbcTemplate.update(ROLLUP_SQL.formatted(granularity.name(), unit), periodStart(granularity, since));
+    }
+
+    private void requeue(Buffer failed) {
+        bufferLock.readLock().lock();
+        try {
+            Buffer current = buffer;
+            failed.dayViews.forEach((key, views) ->
+                    current.dayViews.computeIfAbsent(key, k -> new LongAdder()).add(views.sum()));
+            failed.views.forEach((blogId, views) ->
+                    current.views.computeIfAbsent(blogId, k -> new LongAdder()).add(views.sum()));
+        } finally {
+            bufferLock.readLock().unlock();
+        }
+    }
+
+    private record BlogDay(Long blogId, LocalDate day) {
+    }
+
+    private static final class Buffer {
+
+        private final Map<BlogDay, LongAdder> dayViews = new ConcurrentHashMap<>();
+        private final Map<Long, LongAdder> views = new ConcurrentHashMap<>();
+
+        long viewsOf(Long blogId) {
+            LongAdder adder = views.get(blogId);
+            return adder == null ? 0 : adder.sum();
+        }
+
+        long total() {
+            return views.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.blogapp.blogapp.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes entity changes to every node through Postgres {@code NOTIFY}.
+ *
+ * <p>Inside a transaction, keys are collected and sent with one {@code pg_notify} just
+ * before commit, on the transaction's own connection, so other nodes only hear about
+ * committed changes. Listeners on this node are called after commit. Outside a
+ * transaction the notification is sent right away.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+    /** Postgres rejects payloads of 8000 bytes or more */
+    private static final int MAX_PAYLOAD_LENGTH = 7_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<CacheInvalidationListener> listeners;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${app.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.invalidation.channel:blogapp_cache_invalidation}")
+    private String channel;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate, ObjectProvider<CacheInvalidationListener> listeners,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void publish(String... keys) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingKeys pending = (PendingKeys) TransactionSynchronizationManager.getResource(this);
+            if (pending == null) {
+                pending = new PendingKeys();
+                TransactionSynchronizationManager.bindResource(this, pending);
+                TransactionSynchronizationManager.registerSynchronization(pending);
+            }
+            pending.keys.addAll(List.of(keys));
+            return;
+        }
+
+        Set<String> batch = new LinkedHashSet<>(List.of(keys));
+        sendNotifications(batch);
+        dispatch(batch);
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    String getChannel() {
+        return channel;
+    }
+
+    /** Hands a batch of keys to every listener on this node */
+    void dispatch(Set<String> keys) {
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.invalidate(keys);
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    void dispatchAll() {
+        meterRegistry.counter("blogapp.cache.invalidation.resyncs").increment();
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.invalidateAll();
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation listener {} failed to resync", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private void sendNotifications(Collection<String> keys) {
+        if (!enabled || keys.isEmpty()) {
+            return;
+        }
+        for (String payload : payloads(nodeId, keys)) {
+            jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatementCallback<Boolean>) statement -> {
+                statement.setString(1, channel);
+                statement.setString(2, payload);
+                return statement.execute();
+            });
+        }
+        meterRegistry.counter("blogapp.cache.invalidation.published").increment(keys.size());
+    }
+
+    /** Splits keys into {@code nodeId|key,key,...} payloads that fit into one NOTIFY each */
+    static List<String> payloads(String nodeId, Collection<String> keys) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId).append('|');
+        int emptyLength = payload.length();
+        for (String key : keys) {
+            if (payload.length() > emptyLength && payload.length() + key.length() + 1 > MAX_PAYLOAD_LENGTH) {
+                payloads.add(payload.toString());
+                payload.setLength(emptyLength);
+            }
+            if (payload.length() > emptyLength) {
+                payload.append(',');
+            }
+            payload.append(key);
+        }
+        if (payload.length() > emptyLength) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    private final class PendingKeys implements TransactionSynchronization {
+
+        private final Set<String> keys = new LinkedHashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // NOTIFY is transactional: delivered on commit, dropped on rollback
+            sendNotifications(keys);
+        }
+
+        @Override
+        public void afterCommit() {
+            dispatch(keys);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBus.this);
+        }
+    }
+}
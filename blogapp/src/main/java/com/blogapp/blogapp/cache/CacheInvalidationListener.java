@@ -0,0 +1,21 @@
+package com.blogapp.blogapp.cache;
+
+import java.util.Set;
+
+/**
+ * Implemented by beans that keep in-process state derived from the database.
+ * Called on this node after local commits and for changes committed on other nodes.
+ */
+public interface CacheInvalidationListener {
+
+    /**
+     * Drops whatever depends on the given {@link CacheKeys}. Keys are deduplicated per batch.
+     */
+    void invalidate(Set<String> keys);
+
+    /**
+     * Drops or rebuilds everything. Called after the bus reconnects, because
+     * notifications sent while it was disconnected are lost.
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,175 @@
+package com.blogapp.blogapp.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds one dedicated connection to the primary that LISTENs on the invalidation channel,
+ * and hands coalesced batches of keys from other nodes to {@link CacheInvalidationBus}.
+ *
+ * <p>The connection is opened outside the pool so it never counts against it or gets
+ * recycled. After a lost connection it reconnects with backoff and asks every listener
+ * to resync, since notifications sent in between are gone.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationNotificationListener implements SmartLifecycle {
+
+    private static final int POLL_TIMEOUT_MILLIS = 1_000;
+
+    /** An idle connection is probed this often, since a half-open socket never errors by itself */
+    private static final long KEEPALIVE_INTERVAL_NANOS = 30_000_000_000L;
+
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30_000;
+
+    private final CacheInvalidationBus bus;
+    private final DataSourceProperties dataSourceProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.cache.invalidation.coalesce-window:50}")
+    private long coalesceWindowMillis;
+
+    @Value("${app.cache.invalidation.reconnect-delay:1000}")
+    private long reconnectDelayMillis;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public CacheInvalidationNotificationListener(CacheInvalidationBus bus, DataSourceProperties dataSourceProperties,
+                                                 MeterRegistry meterRegistry) {
+        this.bus = bus;
+        this.dataSourceProperties = dataSourceProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeQuietly(connection);
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        boolean connectedBefore = false;
+        long delay = reconnectDelayMillis;
+        while (running) {
+            try (Connection listenConnection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = listenConnection;
+                try (Statement statement = listenConnection.createStatement()) {
+                    statement.execute("LISTEN " + bus.getChannel());
+                }
+                if (connectedBefore) {
+                    log.info("Cache invalidation listener reconnected, resyncing caches");
+                    bus.dispatchAll();
+                }
+                connectedBefore = true;
+                delay = reconnectDelayMillis;
+                listen(listenConnection);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, retrying in {} ms: {}", delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                delay = Math.min(delay * 2, MAX_RECONNECT_DELAY_MILLIS);
+            }
+        }
+    }
+
+    private void listen(Connection listenConnection) throws SQLException {
+        PGConnection pgConnection = listenConnection.unwrap(PGConnection.class);
+        long lastActivity = System.nanoTime();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+            if (notifications == null || notifications.length == 0) {
+                if (System.nanoTime() - lastActivity > KEEPALIVE_INTERVAL_NANOS) {
+                    try (Statement statement = listenConnection.createStatement()) {
+                        statement.execute("SELECT 1");
+                    }
+                    lastActivity = System.nanoTime();
+                }
+                continue;
+            }
+
+            // Give a burst of commits a moment to arrive, then apply it as one batch
+            Set<String> keys = new LinkedHashSet<>();
+            collect(notifications, keys);
+            long deadline = System.nanoTime() + coalesceWindowMillis * 1_000_000L;
+            long remainingMillis;
+            while ((remainingMillis = (deadline - System.nanoTime()) / 1_000_000L) > 0) {
+                PGNotification[] more = pgConnection.getNotifications((int) remainingMillis);
+                if (more != null) {
+                    collect(more, keys);
+                }
+            }
+
+            if (!keys.isEmpty()) {
+                log.debug("Received {} cache invalidation keys from other nodes", keys.size());
+                meterRegistry.counter("blogapp.cache.invalidation.received").increment(keys.size());
+                bus.dispatch(keys);
+            }
+            lastActivity = System.nanoTime();
+        }
+    }
+
+    private void collect(PGNotification[] notifications, Set<String> keys) {
+        for (PGNotification notification : notifications) {
+            String payload = notification.getParameter();
+            int separator = payload.indexOf('|');
+            // Our own changes were already applied locally after commit
+            if (separator < 0 || payload.substring(0, separator).equals(bus.getNodeId())) {
+                continue;
+            }
+            keys.addAll(Arrays.asList(payload.substring(separator + 1).split(",")));
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Shutting down anyway
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.blogapp.blogapp.cache;
+
+/**
+ * Invalidation keys published on the cache invalidation bus, in the form {@code type:id}
+ */
+public final class CacheKeys {
+
+    public static final String BLOG = "blog";
+    public static final String BLOG_COMMENTS = "blog-comments";
+    public static final String BLOG_SIGNATURE = "blog-signature";
+    public static final String COMMENT = "comment";
+    public static final String USER = "user";
+
+    private CacheKeys() {
+    }
+
+    public static String blog(Long blogId) {
+        return BLOG + ":" + blogId;
+    }
+
+    /** Comment pages and counts of one blog */
+    public static String blogComments(Long blogId) {
+        return BLOG_COMMENTS + ":" + blogId;
+    }
+
+    /** Content signature of one blog, written outside of a blog change */
+    public static String blogSignature(Long blogId) {
+        return BLOG_SIGNATURE + ":" + blogId;
+    }
+
+    public static String comment(Long commentId) {
+        return COMMENT + ":" + commentId;
+    }
+
+    public static String user(Long userId) {
+        return USER + ":" + userId;
+    }
+
+    public static String typeOf(String key) {
+        int separator = key.indexOf(':');
+        return separator < 0 ? key : key.substring(0, separator);
+    }
+
+    /** Returns the id part of a key, or null for keys without one */
+    public static Long idOf(String key) {
+        int separator = key.indexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            return Long.valueOf(key.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
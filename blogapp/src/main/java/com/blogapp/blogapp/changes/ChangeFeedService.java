@@ -0,0 +1,96 @@
+package com.blogapp.blogapp.changes;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.blogapp.dto.ChangeFeedResponse;
+import com.blogapp.blogapp.entity.ChangeLogEntry.Action;
+import com.blogapp.blogapp.entity.ChangeLogEntry.EntityType;
+import com.blogapp.blogapp.service.BlogService;
+import com.blogapp.blogapp.service.CommentService;
+
+/**
+ * Reads {@code change_log} for GET /api/changes: the changes after a client's token in
+ * commit order, with the current state of what was created or updated. A client that
+ * is up to date costs one index probe, and one that is behind pays for what changed since,
+ * not for the size of the corpus.
+ */
+@Service
+public class ChangeFeedService {
+
+    private static final String CHANGES_SQL = "SELECT seq, entity_type, entity_id, action, blog_id, changed_at FROM change_log "
+            + "WHERE seq > ? ORDER BY seq LIMIT ?";
+    private static final String COMMENT_CHANGES_SQL = "SELECT seq, entity_type, entity_id, action, blog_id, changed_at FROM change_log "
+            + "WHERE blog_id = ? AND seq > ? ORDER BY seq LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlogService blogService;
+    private final CommentService commentService;
+    private final TransactionTemplate snapshotTransaction;
+
+    public ChangeFeedService(JdbcTemplate jdbcTemplate, BlogService blogService, CommentService commentService,
+                             PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blogService = blogService;
+        this.commentService = commentService;
+        // The changes and the data they point to come from one snapshot
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Up to limit changes after the since token. Without a token, none, and the token of
+     * the latest change: a client loads what it needs and follows from there.
+     */
+    public ChangeFeedResponse getChanges(Long since, int limit) {
+        return read(since, limit, CHANGES_SQL, since, limit + 1);
+    }
+
+    /**
+     * The same for the comments of one blog: what a client showing them has to add, replace
+     * or remove, from idx_change_log_blog_seq. The tokens are those of the whole feed.
+     */
+    public ChangeFeedResponse getCommentChanges(Long blogId, Long since, int limit) {
+        return read(since, limit, COMMENT_CHANGES_SQL, blogId, since, limit + 1);
+    }
+
+    private ChangeFeedResponse read(Long since, int limit, String sql, Object... args) {
+        return snapshotTransaction.execute(status -> {
+            if (since == null) {
+                return new ChangeFeedResponse(List.of(), jdbcTemplate.queryForObject(ChangeLog.HEAD_SQL, Long.class), false);
+            }
+
+            List<ChangeFeedResponse.Change> changes = jdbcTemplate.query(sql, (row, rowNum) -> new ChangeFeedResponse.Change(
+                    row.getLong("seq"), row.getString("entity_type"), row.getLong("entity_id"), row.getString("action"),
+                    row.getObject("blog_id", Long.class), row.getTimestamp("changed_at").toLocalDateTime(), null), args);
+            boolean hasMore = changes.size() > limit;
+            if (hasMore) {
+                changes = changes.subList(0, limit);
+            }
+
+            List<Long> blogIds = live(changes, EntityType.BLOG);
+            List<Long> commentIds = live(changes, EntityType.COMMENT);
+            Map<Long, ?> blogs = blogIds.isEmpty() ? Map.of() : blogService.getBlogResponses(blogIds);
+            Map<Long, ?> comments = commentIds.isEmpty() ? Map.of() : commentService.getComments(commentIds);
+            for (ChangeFeedResponse.Change change : changes) {
+                change.setData((EntityType.BLOG.name().equals(change.getType()) ? blogs : comments).get(change.getId()));
+            }
+            Long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+            return new ChangeFeedResponse(changes, next, hasMore);
+        });
+    }
+
+    private static List<Long> live(List<ChangeFeedResponse.Change> changes, EntityType type) {
+        return changes.stream()
+                .filter(change -> type.name().equals(change.getType()) && !Action.DELETED.name().equals(change.getAction()))
+                .map(ChangeFeedResponse.Change::getId)
+                .toList();
+    }
+}
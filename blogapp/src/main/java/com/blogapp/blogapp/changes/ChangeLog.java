@@ -0,0 +1,190 @@
+package com.blogapp.blogapp.changes;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.blogapp.entity.ChangeLogEntry.Action;
+import com.blogapp.blogapp.entity.ChangeLogEntry.EntityType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records every blog and comment write in {@code change_log}, one row per entity holding
+ * its latest change, for GET /api/changes.
+ *
+ * <p>Changes are collected during the transaction and written just before it commits, under
+ * a transaction-scoped advisory lock: writers take their sequence numbers one at a time and
+ * release the lock only by committing, so sequence order is commit order and a reader never
+ * sees a number before a lower one it could still miss. The lock is held only for the commit
+ * of writes that are already flushed. Rows are stamped with the clock under that lock rather
+ * than with the transaction start, so changed_at grows with the sequence number and a blog's
+ * latest change is also its latest time. Rows written around the services (bulk loads) are
+ * picked up as created by a backfill.
+ */
+@Slf4j
+@Component
+public class ChangeLog {
+
+    /** Advisory lock key shared by every change log writer */
+    static final long LOCK_KEY = 0x6368616e67656cL;
+
+    static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+    static final String HEAD_SQL = "SELECT COALESCE(MAX(seq), 0) FROM change_log";
+    static final String UPSERT_SQL = "INSERT INTO change_log (entity_type, entity_id, seq, action, blog_id, changed_at) "
+            + "VALUES (?, ?, ?, ?, ?, CAST(clock_timestamp() AS TIMESTAMP)) "
+            + "ON CONFLICT (entity_type, entity_id) DO UPDATE SET seq = EXCLUDED.seq, action = EXCLUDED.action, "
+            + "blog_id = EXCLUDED.blog_id, changed_at = EXCLUDED.changed_at";
+    private static final String BACKFILL_BLOGS_SQL = "INSERT INTO change_log (entity_type, entity_id, seq, action, blog_id, changed_at) "
+            + "SELECT 'BLOG', b.id, ? + row_number() OVER (ORDER BY b.id), 'CREATED', NULL, CAST(clock_timestamp() AS TIMESTAMP) FROM ("
+            + "SELECT id FROM blogs WHERE NOT EXISTS (SELECT 1 FROM change_log c WHERE c.entity_type = 'BLOG' AND c.entity_id = blogs.id) "
+            + "ORDER BY id LIMIT ?) b ON CONFLICT DO NOTHING";
+    private static final String BACKFILL_COMMENTS_SQL = "INSERT INTO change_log (entity_type, entity_id, seq, action, blog_id, changed_at) "
+            + "SELECT 'COMMENT', cm.id, ? + row_number() OVER (ORDER BY cm.id), 'CREATED', cm.blog_id, CAST(clock_timestamp() AS TIMESTAMP) FROM ("
+            + "SELECT id, blog_id FROM comments WHERE NOT EXISTS (SELECT 1 FROM change_log c WHERE c.entity_type = 'COMMENT' AND c.entity_id = comments.id) "
+            + "ORDER BY id LIMIT ?) cm ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.changes.backfill-batch-size:5000}")
+    private int backfillBatchSize;
+
+    record Key(EntityType type, Long id) {
+    }
+
+    record Change(EntityType type, Long id, Action action, Long blogId) {
+    }
+
+    public ChangeLog(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void blogCreated(Long blogId) {
+        record(new Change(EntityType.BLOG, blogId, Action.CREATED, null));
+    }
+
+    public void blogUpdated(Long blogId) {
+        record(new Change(EntityType.BLOG, blogId, Action.UPDATED, null));
+    }
+
+    public void blogDeleted(Long blogId) {
+        record(new Change(EntityType.BLOG, blogId, Action.DELETED, null));
+    }
+
+    public void commentCreated(Long commentId, Long blogId) {
+        record(new Change(EntityType.COMMENT, commentId, Action.CREATED, blogId));
+    }
+
+    public void commentUpdated(Long commentId, Long blogId) {
+        record(new Change(EntityType.COMMENT, commentId, Action.UPDATED, blogId));
+    }
+
+    public void commentDeleted(Long commentId, Long blogId) {
+        record(new Change(EntityType.COMMENT, commentId, Action.DELETED, blogId));
+    }
+
+    /**
+     * Adds a change to the current transaction's batch, or writes it in a transaction of
+     * its own when there is none
+     */
+    private void record(Change change) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+            if (pending == null) {
+                pending = new PendingChanges();
+                TransactionSynchronizationManager.bindResource(this, pending);
+                TransactionSynchronizationManager.registerSynchronization(pending);
+            }
+            pending.add(change);
+            return;
+        }
+        writeTransaction.executeWithoutResult(status -> record(change));
+    }
+
+    /** A later change of the same entity in one transaction replaces the earlier one, except that it stays created */
+    static Action merge(Action earlier, Action later) {
+        return earlier == Action.CREATED && later == Action.UPDATED ? Action.CREATED : later;
+    }
+
+    /** Takes the writer lock; held until the transaction ends */
+    private long lock() {
+        jdbcTemplate.query(LOCK_SQL, (RowCallbackHandler) row -> {
+        }, LOCK_KEY);
+        return jdbcTemplate.queryForObject(HEAD_SQL, Long.class);
+    }
+
+    private void write(List<Change> changes) {
+        // Row locks first: flushing after taking the lock could wait on a writer that waits on us
+        if (entityManager != null && entityManager.isJoinedToTransaction()) {
+            entityManager.flush();
+        }
+        long head = lock();
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            rows.add(new Object[] {change.type().name(), change.id(), ++head, change.action().name(), change.blogId()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        meterRegistry.counter("blogapp.changes.recorded").increment(changes.size());
+    }
+
+    /**
+     * Records posts and comments that have no change yet, e.g. bulk-loaded ones, as created,
+     * one batch per transaction until none are left
+     */
+    @Scheduled(fixedDelayString = "${app.changes.backfill-interval:300000}")
+    public void backfill() {
+        int recorded = 0;
+        for (String sql : List.of(BACKFILL_BLOGS_SQL, BACKFILL_COMMENTS_SQL)) {
+            int batch;
+            do {
+                batch = writeTransaction.execute(status -> jdbcTemplate.update(sql, lock(), backfillBatchSize));
+                recorded += batch;
+            } while (batch == backfillBatchSize);
+        }
+        if (recorded > 0) {
+            log.info("Backfilled {} changes", recorded);
+        }
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Map<Key, Change> changes = new LinkedHashMap<>();
+
+        void add(Change change) {
+            changes.merge(new Key(change.type(), change.id()), change, (earlier, later) ->
+                    new Change(later.type(), later.id(), ChangeLog.merge(earlier.action(), later.action()), later.blogId()));
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write(List.copyOf(changes.values()));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLog.this);
+        }
+    }
+}
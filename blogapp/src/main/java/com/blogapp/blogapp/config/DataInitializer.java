@@ -1,13 +1,38 @@
 package com.blogapp.blogapp.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
+import com.blogapp.blogapp.seed.SyntheticDataGenerator;
+
 @Component
 public class DataInitializer implements CommandLineRunner {
-    
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${app.seed.enabled:false}")
+    private boolean seedEnabled;
+
+    @Value("${app.seed.exit-when-done:false}")
+    private boolean exitWhenDone;
+
     @Override
     public void run(String... args) throws Exception {
-        // Tag initialization removed - no initialization needed
+        // Synthetic data only on request, see the "seed" profile
+        if (!seedEnabled) {
+            return;
+        }
+        syntheticDataGenerator.generate();
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.blogapp.blogapp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open EntityManager in View as Spring Boot registers it, except on the reads that answer
+ * conditional requests from a version lookup. With an EntityManager open for the whole request,
+ * the connection of its first query is held until the response is written, so every concurrent
+ * request for a popular blog or comment list would hold one, even one that only waits on a
+ * single-flight read. The handlers of these paths read only in transactions of their own, which
+ * hand the connection back when they end.
+ *
+ * <p>Declaring the interceptor makes Spring Boot's own registration back off.
+ */
+@Configuration
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+
+    static final String[] TRANSACTION_SCOPED_PATHS = {
+            "/api/blogs/{id:\\d+}", "/api/blogs/{id}/comments/**", "/api/users/{id}/comments"};
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor()).excludePathPatterns(TRANSACTION_SCOPED_PATHS);
+    }
+}
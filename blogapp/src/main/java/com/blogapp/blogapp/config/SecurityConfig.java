@@ -71,7 +71,11 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/users/*/blogs").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/users/*/comments").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/users/*").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/comments/batch", "/api/comments/*/thread").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/images/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/changes").permitAll()
+                .requestMatchers(HttpMethod.GET, "/feed.xml", "/feed.atom", "/api/users/*/feed.xml", "/api/users/*/feed.atom").permitAll()
+                .requestMatchers(HttpMethod.GET, "/sitemap.xml", "/sitemap-*.xml").permitAll()
                 .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
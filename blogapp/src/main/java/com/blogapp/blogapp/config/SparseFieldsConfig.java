@@ -0,0 +1,100 @@
+package com.blogapp.blogapp.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.blogapp.blogapp.dto.SparseFields;
+import com.blogapp.blogapp.util.FieldSelection;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+
+/**
+ * Applies {@code ?fields=} to responses marked with {@link SparseFields}.
+ *
+ * <p>Jackson builds each bean serializer once; this wraps its property writers in one that
+ * skips unselected properties. Requests without the parameter pay one request attribute
+ * lookup per property and nothing else, and no reflection happens per request.
+ */
+@Configuration
+public class SparseFieldsConfig {
+
+    static final String FIELDS_PARAMETER = "fields";
+
+    private static final String SELECTION_ATTRIBUTE = SparseFieldsConfig.class.getName() + ".selection";
+
+    /** Cached in the request for requests without a selection, since null means "not parsed yet" */
+    private static final Object NO_SELECTION = new Object();
+
+    @Bean
+    public Module sparseFieldsModule() {
+        SimpleModule module = new SimpleModule("SparseFields");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                if (!beanDesc.getBeanClass().isAnnotationPresent(SparseFields.class)) {
+                    return beanProperties;
+                }
+                return beanProperties.stream().<BeanPropertyWriter>map(SparseFieldWriter::new).toList();
+            }
+        });
+        return module;
+    }
+
+    /** The selection of the current request, or null when it wants every field */
+    static FieldSelection currentSelection() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        Object cached = attributes.getAttribute(SELECTION_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached == null) {
+            FieldSelection selection = FieldSelection.parse(servletAttributes.getRequest().getParameter(FIELDS_PARAMETER));
+            cached = selection != null ? selection : NO_SELECTION;
+            attributes.setAttribute(SELECTION_ATTRIBUTE, cached, RequestAttributes.SCOPE_REQUEST);
+        }
+        return cached instanceof FieldSelection selection ? selection : null;
+    }
+
+    private static final class SparseFieldWriter extends BeanPropertyWriter {
+
+        private static final long serialVersionUID = 1L;
+
+        SparseFieldWriter(BeanPropertyWriter base) {
+            super(base);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            FieldSelection selection = currentSelection();
+            if (selection == null || selection.includes(path(gen))) {
+                super.serializeAsField(bean, gen, prov);
+            }
+        }
+
+        /** Path of this property from the outermost enclosing marked object, e.g. author.firstName */
+        private String path(JsonGenerator gen) {
+            String path = getName();
+            JsonStreamContext parent = gen.getOutputContext().getParent();
+            while (parent != null && parent.inObject() && parent.getCurrentName() != null
+                    && parent.getCurrentValue() != null
+                    && parent.getCurrentValue().getClass().isAnnotationPresent(SparseFields.class)) {
+                path = parent.getCurrentName() + "." + path;
+                parent = parent.getParent();
+            }
+            return path;
+        }
+    }
+}
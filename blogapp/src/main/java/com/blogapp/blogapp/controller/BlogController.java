@@ -1,10 +1,15 @@
 package com.blogapp.blogapp.controller;
 
+import java.security.Principal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,13 +24,29 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import com.blogapp.blogapp.analytics.UniqueViewerService;
+import com.blogapp.blogapp.analytics.ViewAnalyticsService;
+import com.blogapp.blogapp.dto.BatchItem;
+import com.blogapp.blogapp.dto.BlogMapper;
 import com.blogapp.blogapp.dto.BlogRequest;
 import com.blogapp.blogapp.dto.BlogResponse;
+import com.blogapp.blogapp.dto.BlogStatsResponse;
+import com.blogapp.blogapp.dto.BlogSuggestionResponse;
 import com.blogapp.blogapp.dto.BlogSummaryResponse;
+import com.blogapp.blogapp.dto.PageResponse;
+import com.blogapp.blogapp.dto.RelatedPostResponse;
 import com.blogapp.blogapp.entity.Blog;
+import com.blogapp.blogapp.entity.BlogViewRollup;
+import com.blogapp.blogapp.repository.BlogVersionRow;
+import com.blogapp.blogapp.search.RelatedPostsService;
+import com.blogapp.blogapp.search.TitleSuggestService;
 import com.blogapp.blogapp.service.BlogService;
+import com.blogapp.blogapp.util.FieldSelection;
+import com.blogapp.blogapp.util.ResourceVersion;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -36,49 +57,115 @@ import lombok.RequiredArgsConstructor;
 public class BlogController {
     
     private final BlogService blogService;
+    private final ViewAnalyticsService viewAnalyticsService;
+    private final TitleSuggestService titleSuggestService;
+    private final RelatedPostsService relatedPostsService;
+    
+    @Value("${app.batch.max-ids:100}")
+    private int maxBatchIds;
     
     /**
      * Get all blogs with pagination, sorting, and searching (public endpoint)
      * GET /api/blogs?page=0&size=10&sortBy=date&search=spring
+     * sortBy: date, popularity, title or trending (recent views, served from memory)
+     * fields: e.g. id,title,author.firstName to receive and read only those (also on other blog, comment and user responses)
      */
     @GetMapping
-    public ResponseEntity<Page<BlogSummaryResponse>> getAllBlogs(
+    public ResponseEntity<PageResponse<BlogSummaryResponse>> getAllBlogs(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "date") String sortBy,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String fields) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Blog> blogs;
+        Page<BlogSummaryResponse> response;
+        FieldSelection fieldSelection = FieldSelection.parse(fields);
         
         // Apply searching
         if (search != null && !search.trim().isEmpty()) {
-            blogs = blogService.searchBlogs(search, pageable);
+            response = blogService.searchBlogs(search, pageable);
+        } else if ("trending".equalsIgnoreCase(sortBy)) {
+            response = blogService.getTrendingBlogs(pageable);
+        } else if (fieldSelection != null) {
+            response = blogService.getBlogSummaries(pageable, sortBy, fieldSelection);
         } else {
-            blogs = blogService.getAllBlogs(pageable, sortBy);
+            response = blogService.withCommentCounts(blogService.getAllBlogs(pageable, sortBy).map(BlogMapper::toBlogSummaryResponse));
         }
         
-        Page<BlogSummaryResponse> response = blogs.map(this::convertToBlogSummaryResponse);
+        return ResponseEntity.ok(PageResponse.of(response));
+    }
+    
+    /**
+     * Title suggestions for the search box, most popular first (public endpoint)
+     * Served from memory, without touching the database
+     * GET /api/blogs/suggest?prefix=spr&limit=10
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BlogSuggestionResponse>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        return ResponseEntity.ok(titleSuggestService.suggest(prefix, limit));
+    }
+    
+    /**
+     * Get several blogs at once, in request order, with unknown ids marked as not found (public endpoint)
+     * One query for all of them; views are not counted
+     * GET /api/blogs/batch?ids=3,1,2
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<List<BatchItem<BlogResponse>>> getBlogsByIds(@RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > maxBatchIds || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(BatchItem.inRequestOrder(ids, blogService.getBlogResponses(ids)));
     }
     
     /**
      * Get a specific blog by ID (public endpoint)
      * GET /api/blogs/{id}
+     * Revalidation (If-None-Match, If-Modified-Since) is answered with a 304 before the blog is read,
+     * and still counts the view; the ETag is weak as view counts may have moved on
      */
     @GetMapping("/{id}")
-    public ResponseEntity<BlogResponse> getBlogById(@PathVariable Long id) {
-        Optional<Blog> blog = blogService.getBlogByIdAndIncrementViews(id);
+    public ResponseEntity<BlogResponse> getBlogById(@PathVariable Long id, Principal principal,
+                                                    HttpServletRequest request, ServletWebRequest webRequest) {
+        String viewerKey = UniqueViewerService.viewerKey(principal, request);
+        Optional<BlogVersionRow> version = blogService.getBlogVersion(id);
+        if (version.isPresent() && ConditionalGet.notModified(webRequest,
+                ResourceVersion.weak(id, version.get().getUpdatedAt(), version.get().getAuthorUpdatedAt(),
+                                version.get().getCommentCount())
+                        .lastModifiedAt(version.get().getUpdatedAt(), version.get().getAuthorUpdatedAt(),
+                                version.get().getCommentsChangedAt()),
+                ConditionalGet.PUBLIC)) {
+            blogService.recordView(id, version.get().getViewCount(), viewerKey);
+            return null;
+        }
+        
+        Optional<BlogResponse> blog = blogService.getBlogResponseAndIncrementViews(id, viewerKey);
         
         if (blog.isPresent()) {
-            BlogResponse response = convertToBlogResponse(blog.get());
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(blog.get());
         } else {
             return ResponseEntity.notFound().build();
         }
     }
     
+    /**
+     * Posts with similar content, most similar first (public endpoint)
+     * Served from memory; empty for unknown blogs or ones not indexed yet
+     * GET /api/blogs/{id}/related?limit=5
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<RelatedPostResponse>> getRelatedPosts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "5") int limit) {
+        
+        return ResponseEntity.ok(relatedPostsService.findRelated(id, limit));
+    }
+    
     /**
      * Create a new blog post (authenticated users only)
      * POST /api/blogs
@@ -96,7 +183,7 @@ public class BlogController {
             userEmail
         );
         
-        BlogResponse response = convertToBlogResponse(createdBlog);
+        BlogResponse response = BlogMapper.toBlogResponse(createdBlog);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
@@ -120,7 +207,8 @@ public class BlogController {
                 userEmail
             );
             
-            BlogResponse response = convertToBlogResponse(updatedBlog);
+            BlogResponse response = BlogMapper.toBlogResponse(updatedBlog);
+            blogService.fillCommentCounts(List.of(response));
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("not found")) {
@@ -159,13 +247,48 @@ public class BlogController {
         }
     }
     
+    /**
+     * View statistics of a blog (author only), answered from the daily, weekly and monthly rollups
+     * GET /api/blogs/{id}/stats?from=2025-01-01&to=2025-03-31&granularity=day
+     */
+    @GetMapping("/{id}/stats")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BlogStatsResponse> getBlogStats(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String granularity,
+            Authentication authentication) {
+        
+        // GET /api/blogs/** is public in the security filter chain, so check here
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        Optional<Blog> blog = blogService.getBlogById(id);
+        if (blog.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!blog.get().getAuthor().getEmail().equals(authentication.getName())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        try {
+            BlogViewRollup.Granularity resolved = granularity == null
+                    ? null : BlogViewRollup.Granularity.valueOf(granularity.toUpperCase());
+            return ResponseEntity.ok(viewAnalyticsService.getStats(id, from, to, resolved));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     /**
      * Get blogs by current authenticated user
      * GET /api/blogs/my-blogs?page=0&size=10
      */
     @GetMapping("/my-blogs")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<BlogSummaryResponse>> getMyBlogs(
+    public ResponseEntity<PageResponse<BlogSummaryResponse>> getMyBlogs(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Authentication authentication) {
@@ -175,9 +298,9 @@ public class BlogController {
         
         try {
             Page<Blog> userBlogs = blogService.getBlogsByUserEmail(userEmail, pageable);
-            Page<BlogSummaryResponse> response = userBlogs.map(this::convertToBlogSummaryResponse);
+            Page<BlogSummaryResponse> response = blogService.withCommentCounts(userBlogs.map(BlogMapper::toBlogSummaryResponse));
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(PageResponse.of(response));
         } catch (RuntimeException e) {
             if (e.getMessage().contains("User not found")) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -202,51 +325,4 @@ public class BlogController {
         
         return ResponseEntity.ok(isAuthor);
     }
-    
-    // Helper methods to convert entities to DTOs
-    
-    private BlogResponse convertToBlogResponse(Blog blog) {
-        BlogResponse.AuthorInfo authorInfo = new BlogResponse.AuthorInfo(
-            blog.getAuthor().getId(),
-            blog.getAuthor().getEmail(),
-            blog.getAuthor().getFirstName(),
-            blog.getAuthor().getLastName()
-        );
-        
-        return new BlogResponse(
-            blog.getId(),
-            blog.getTitle(),
-            blog.getContent(),
-            java.util.Collections.emptyList(), // No tags
-            blog.getViewCount(),
-            authorInfo,
-            blog.getCreatedAt(),
-            blog.getUpdatedAt()
-        );
-    }
-    
-    private BlogSummaryResponse convertToBlogSummaryResponse(Blog blog) {
-        BlogSummaryResponse.AuthorInfo authorInfo = new BlogSummaryResponse.AuthorInfo(
-            blog.getAuthor().getId(),
-            blog.getAuthor().getEmail(),
-            blog.getAuthor().getFirstName(),
-            blog.getAuthor().getLastName()
-        );
-        
-        // Create content preview (first 200 characters)
-        String contentPreview = blog.getContent().length() > 200 
-            ? blog.getContent().substring(0, 200) + "..."
-            : blog.getContent();
-        
-        return new BlogSummaryResponse(
-            blog.getId(),
-            blog.getTitle(),
-            contentPreview,
-            java.util.Collections.emptyList(), // No tags
-            blog.getViewCount(),
-            authorInfo,
-            blog.getCreatedAt(),
-            blog.getUpdatedAt()
-        );
-    }
 }
\ No newline at end of file
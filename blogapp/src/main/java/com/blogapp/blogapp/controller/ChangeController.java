@@ -0,0 +1,36 @@
+package com.blogapp.blogapp.controller;
+
+import com.blogapp.blogapp.changes.ChangeFeedService;
+import com.blogapp.blogapp.dto.ChangeFeedResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ChangeController {
+    
+    @Autowired
+    private ChangeFeedService changeFeedService;
+    
+    @Value("${app.changes.max-limit:1000}")
+    private int maxLimit;
+    
+    /**
+     * Blogs and comments created, updated or deleted after a token, in commit order
+     * GET /api/changes?since=1234&limit=100
+     * Without since, no changes and the token to follow from
+     */
+    @GetMapping
+    public ResponseEntity<ChangeFeedResponse> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        if ((since != null && since < 0) || limit < 1 || limit > maxLimit) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(changeFeedService.getChanges(since, limit));
+    }
+}
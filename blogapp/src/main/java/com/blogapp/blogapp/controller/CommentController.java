@@ -1,18 +1,31 @@
 package com.blogapp.blogapp.controller;
 
+import com.blogapp.blogapp.changes.ChangeFeedService;
+import com.blogapp.blogapp.dto.BatchItem;
+import com.blogapp.blogapp.dto.ChangeFeedResponse;
 import com.blogapp.blogapp.dto.CommentRequest;
 import com.blogapp.blogapp.dto.CommentResponse;
+import com.blogapp.blogapp.dto.CommentThreadResponse;
+import com.blogapp.blogapp.dto.CursorPage;
+import com.blogapp.blogapp.dto.PageResponse;
+import com.blogapp.blogapp.repository.CommentsVersionRow;
 import com.blogapp.blogapp.service.CommentService;
+import com.blogapp.blogapp.util.ResourceVersion;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api")
@@ -22,15 +35,144 @@ public class CommentController {
     @Autowired
     private CommentService commentService;
     
+    @Autowired
+    private ChangeFeedService changeFeedService;
+    
+    @Value("${app.batch.max-ids:100}")
+    private int maxBatchIds;
+    
+    @Value("${app.comments.max-replies-per-thread:50}")
+    private int maxRepliesPerThread;
+    
+    @Value("${app.comments.max-limit:100}")
+    private int maxLimit;
+    
+    @Value("${app.changes.max-limit:1000}")
+    private int maxChangesLimit;
+    
+    /**
+     * GET /api/blogs/{blogId}/comments?page=0&size=10
+     * Revalidation is answered with a 304 from the blog's comment count and latest comment change
+     */
     @GetMapping("/blogs/{blogId}/comments")
-    public ResponseEntity<Page<CommentResponse>> getCommentsByBlogId(
+    public ResponseEntity<PageResponse<CommentResponse>> getCommentsByBlogId(
             @PathVariable Long blogId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            ServletWebRequest webRequest) {
+        
+        if (notModified(blogId, "comments", webRequest)) {
+            return null;
+        }
         
         Pageable pageable = PageRequest.of(page, size);
         Page<CommentResponse> comments = commentService.getCommentsByBlogId(blogId, pageable);
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(PageResponse.of(comments));
+    }
+    
+    /**
+     * Keyset pages of a blog's comments, newest first: follow next until hasMore is false
+     * GET /api/blogs/{blogId}/comments/scroll?cursor=<next>&limit=20
+     */
+    @GetMapping("/blogs/{blogId}/comments/scroll")
+    public ResponseEntity<CursorPage<CommentResponse>> getCommentPageByBlogId(
+            @PathVariable Long blogId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            ServletWebRequest webRequest) {
+        
+        if (limit < 1 || limit > maxLimit) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (notModified(blogId, "comments", webRequest)) {
+            return null;
+        }
+        
+        try {
+            return ResponseEntity.ok(commentService.getCommentPageByBlogId(blogId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * The blog's comments created, edited or deleted after a token, in commit order, to bring
+     * a loaded list up to date without reading it again; without since, the token to start from
+     * GET /api/blogs/{blogId}/comments/changes?since=1234&limit=100
+     */
+    @GetMapping("/blogs/{blogId}/comments/changes")
+    public ResponseEntity<ChangeFeedResponse> getCommentChanges(
+            @PathVariable Long blogId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        if ((since != null && since < 0) || limit < 1 || limit > maxChangesLimit) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(changeFeedService.getCommentChanges(blogId, since, limit));
+    }
+    
+    /**
+     * Top-level comments, newest first, each with up to the given number of its replies in reading order
+     * GET /api/blogs/{blogId}/comments/threads?page=0&size=10&replies=3
+     */
+    @GetMapping("/blogs/{blogId}/comments/threads")
+    public ResponseEntity<PageResponse<CommentThreadResponse>> getCommentThreadsByBlogId(
+            @PathVariable Long blogId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "3") int replies,
+            ServletWebRequest webRequest) {
+        
+        if (replies < 0 || replies > maxRepliesPerThread) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (notModified(blogId, "threads", webRequest)) {
+            return null;
+        }
+        
+        Page<CommentThreadResponse> threads = commentService.getThreadsByBlogId(blogId, PageRequest.of(page, size), replies);
+        return ResponseEntity.ok(PageResponse.of(threads));
+    }
+    
+    /**
+     * Every comment list of a blog is current as long as the blog's comments and the users are;
+     * the list is named as its pages differ from those of another list
+     */
+    private boolean notModified(Long blogId, String list, ServletWebRequest webRequest) {
+        Optional<CommentsVersionRow> version = commentService.getCommentsVersionByBlogId(blogId);
+        return version.isPresent() && ConditionalGet.notModified(webRequest, ResourceVersion.strong(blogId, list,
+                        version.get().getCommentCount(), version.get().getChangeSeq(), version.get().getChangedAt(),
+                        version.get().getUsersUpdatedAt())
+                .lastModifiedAt(version.get().getChangedAt(), version.get().getUsersUpdatedAt()), ConditionalGet.PUBLIC);
+    }
+    
+    /**
+     * A comment with all its replies, at every depth, in reading order
+     * GET /api/comments/{commentId}/thread
+     */
+    @GetMapping("/comments/{commentId}/thread")
+    public ResponseEntity<List<CommentResponse>> getCommentThread(@PathVariable Long commentId) {
+        try {
+            return ResponseEntity.ok(commentService.getThread(commentId));
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Several comments at once, in request order, with unknown ids marked as not found
+     * GET /api/comments/batch?ids=3,1,2
+     */
+    @GetMapping("/comments/batch")
+    public ResponseEntity<List<BatchItem<CommentResponse>>> getCommentsByIds(@RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > maxBatchIds || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(BatchItem.inRequestOrder(ids, commentService.getComments(ids)));
     }
     
     @PostMapping("/blogs/{blogId}/comments")
@@ -77,9 +219,43 @@ public class CommentController {
         }
     }
     
+    /**
+     * Keyset pages of a user's comments, newest first. A page costs no more to read than a
+     * version of every comment of the user would, so it is read first and revalidated against itself
+     * GET /api/users/{userId}/comments?cursor=<next>&limit=20
+     */
     @GetMapping("/users/{userId}/comments")
-    public ResponseEntity<List<CommentResponse>> getUserComments(@PathVariable Long userId) {
-        List<CommentResponse> comments = commentService.getCommentsByUserId(userId);
+    public ResponseEntity<CursorPage<CommentResponse>> getUserComments(@PathVariable Long userId,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(defaultValue = "20") int limit,
+                                                                       ServletWebRequest webRequest) {
+        if (limit < 1 || limit > maxLimit) {
+            return ResponseEntity.badRequest().build();
+        }
+        CursorPage<CommentResponse> comments;
+        try {
+            comments = commentService.getCommentsByUserId(userId, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (ConditionalGet.notModified(webRequest, version(userId, comments), ConditionalGet.PUBLIC)) {
+            return null;
+        }
         return ResponseEntity.ok(comments);
     }
+    
+    /**
+     * What a page of comments shows that can change, and where the next one starts; ETag only, as
+     * a reply changes the reply count of the comment it answers without touching its updated_at
+     */
+    private static ResourceVersion version(Long ownerId, CursorPage<CommentResponse> page) {
+        List<Object> parts = new ArrayList<>(page.getContent().size() * 6 + 2);
+        parts.add(ownerId);
+        parts.add(page.getNext());
+        for (CommentResponse comment : page.getContent()) {
+            parts.addAll(Arrays.asList(comment.getId(), comment.getUpdatedAt(), comment.getAuthorName(),
+                    comment.getParentId(), comment.getDepth(), comment.getReplyCount()));
+        }
+        return ResourceVersion.strong(parts.toArray());
+    }
 }
\ No newline at end of file
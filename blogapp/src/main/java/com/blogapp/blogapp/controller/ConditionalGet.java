@@ -0,0 +1,40 @@
+package com.blogapp.blogapp.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.blogapp.blogapp.util.ResourceVersion;
+
+/**
+ * Conditional GET for the read endpoints: sends the validators of a version and tells
+ * whether the client's copy is current, in which case the response is a 304 and the
+ * handler returns null without building the body.
+ */
+final class ConditionalGet {
+
+    /** Stored by browsers and CDNs, but revalidated before every use */
+    static final CacheControl PUBLIC = CacheControl.noCache();
+    static final CacheControl PRIVATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    static boolean notModified(ServletWebRequest request, ResourceVersion version, CacheControl cacheControl) {
+        // Also keeps Spring Security from marking the response no-store
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return request.checkNotModified(version.etag(variant(request.getHeader(HttpHeaders.ACCEPT))), version.lastModified());
+    }
+
+    /** CBOR and Smile bodies differ from the JSON one, so they get ETags of their own */
+    private static String variant(String accept) {
+        if (accept == null) {
+            return "";
+        }
+        if (accept.contains("cbor")) {
+            return "cbor";
+        }
+        return accept.contains("smile") ? "smile" : "";
+    }
+}
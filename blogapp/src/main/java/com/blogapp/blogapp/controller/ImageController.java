@@ -78,7 +78,7 @@ public class ImageController {
         }
     }
     
-    private String determineContentType(String filename) {
+    String determineContentType(String filename) {
         String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
         switch (extension) {
             case "jpg":
@@ -0,0 +1,89 @@
+package com.blogapp.blogapp.controller;
+
+import com.blogapp.blogapp.feed.FeedPageFilter;
+import com.blogapp.blogapp.feed.SitemapService;
+import com.blogapp.blogapp.util.ResourceVersion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sitemap index and parts for search engines; parts are streamed off the request thread
+ */
+@RestController
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class SitemapController {
+    
+    @Autowired
+    private SitemapService sitemapService;
+    
+    /**
+     * GET /sitemap.xml
+     */
+    @GetMapping("/sitemap.xml")
+    public ResponseEntity<byte[]> getSitemapIndex(ServletWebRequest webRequest) throws XMLStreamException {
+        String partUrlPrefix = ServletUriComponentsBuilder.fromCurrentContextPath().path("/sitemap-").toUriString();
+        List<Object> versionParts = new ArrayList<>(List.of(partUrlPrefix));
+        for (SitemapService.Part part : sitemapService.getParts()) {
+            versionParts.addAll(List.of(part.number(), part.urls(), part.lastModified()));
+        }
+        if (ConditionalGet.notModified(webRequest, ResourceVersion.strong(versionParts.toArray()), ConditionalGet.PUBLIC)) {
+            return null;
+        }
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sitemapService.writeIndex(out, partUrlPrefix);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_XML).body(out.toByteArray());
+    }
+    
+    /**
+     * GET /sitemap-0.xml, gzipped on the fly when the client accepts it
+     */
+    @GetMapping("/sitemap-{part:\\d+}.xml")
+    public ResponseEntity<StreamingResponseBody> getSitemapPart(@PathVariable int part, ServletWebRequest webRequest) {
+        Optional<SitemapService.Part> found = sitemapService.getPart(part);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean gzip = FeedPageFilter.acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        webRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (ConditionalGet.notModified(webRequest, found.get().version(gzip ? "gzip" : "identity"), ConditionalGet.PUBLIC)) {
+            return null;
+        }
+        
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+            // The XML writer hands over a few bytes at a time, far too little for a deflate call each
+            OutputStream target = new BufferedOutputStream(compressed != null ? compressed : out, 16 * 1024);
+            try {
+                sitemapService.writePart(part, target);
+            } catch (XMLStreamException e) {
+                throw new IOException("Could not write sitemap part " + part, e);
+            }
+            target.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_XML);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
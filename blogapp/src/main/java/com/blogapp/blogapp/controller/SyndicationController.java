@@ -0,0 +1,59 @@
+package com.blogapp.blogapp.controller;
+
+import com.blogapp.blogapp.feed.SyndicationFeedService;
+import com.blogapp.blogapp.feed.SyndicationFeedService.Feed;
+import com.blogapp.blogapp.feed.SyndicationFeedService.Format;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * RSS and Atom feeds of the newest posts, site-wide and per author, served from memory
+ */
+@RestController
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class SyndicationController {
+    
+    @Autowired
+    private SyndicationFeedService syndicationFeedService;
+    
+    /**
+     * GET /feed.xml (RSS) or /feed.atom
+     */
+    @GetMapping({"/feed.xml", "/feed.atom"})
+    public ResponseEntity<byte[]> getSiteFeed(ServletWebRequest webRequest) {
+        Format format = format(webRequest);
+        return respond(webRequest, syndicationFeedService.getSiteFeed(format), format);
+    }
+    
+    /**
+     * GET /api/users/{userId}/feed.xml (RSS) or /api/users/{userId}/feed.atom
+     */
+    @GetMapping({"/api/users/{userId}/feed.xml", "/api/users/{userId}/feed.atom"})
+    public ResponseEntity<byte[]> getAuthorFeed(@PathVariable Long userId, ServletWebRequest webRequest) {
+        Format format = format(webRequest);
+        Optional<Feed> feed = syndicationFeedService.getAuthorFeed(userId, format);
+        if (feed.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return respond(webRequest, feed.get(), format);
+    }
+    
+    private static Format format(ServletWebRequest webRequest) {
+        return webRequest.getRequest().getRequestURI().endsWith(".atom") ? Format.ATOM : Format.RSS;
+    }
+    
+    private static ResponseEntity<byte[]> respond(ServletWebRequest webRequest, Feed feed, Format format) {
+        if (ConditionalGet.notModified(webRequest, feed.version(), ConditionalGet.PUBLIC)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.parseMediaType(format.contentType()), StandardCharsets.UTF_8))
+                .body(feed.xml());
+    }
+}
@@ -1,15 +1,23 @@
 package com.blogapp.blogapp.controller;
 
+import com.blogapp.blogapp.dto.BatchItem;
 import com.blogapp.blogapp.dto.UserProfileRequest;
 import com.blogapp.blogapp.dto.UserProfileResponse;
 import com.blogapp.blogapp.service.BlogService;
 import com.blogapp.blogapp.service.CommentService;
+import com.blogapp.blogapp.repository.UserVersionRow;
 import com.blogapp.blogapp.service.UserService;
+import com.blogapp.blogapp.util.ResourceVersion;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/users")
@@ -19,10 +27,17 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Value("${app.batch.max-ids:100}")
+    private int maxBatchIds;
+    
     @GetMapping("/profile")
-    public ResponseEntity<?> getCurrentUserProfile(Authentication authentication) {
+    public ResponseEntity<?> getCurrentUserProfile(Authentication authentication, ServletWebRequest webRequest) {
         try {
             String userEmail = authentication.getName();
+            Optional<UserVersionRow> version = userService.getUserVersion(userEmail);
+            if (version.isPresent() && ConditionalGet.notModified(webRequest, version(version.get()), ConditionalGet.PRIVATE)) {
+                return null;
+            }
             UserProfileResponse profile = userService.getUserProfile(userEmail);
             return ResponseEntity.ok(profile);
         } catch (RuntimeException e) {
@@ -30,9 +45,25 @@ public class UserController {
         }
     }
     
+    /**
+     * Several profiles at once, in request order, with unknown ids marked as not found
+     * GET /api/users/batch?ids=3,1,2
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<List<BatchItem<UserProfileResponse>>> getUserProfiles(@RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > maxBatchIds || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(BatchItem.inRequestOrder(ids, userService.getUserProfiles(ids)));
+    }
+    
     @GetMapping("/{userId}")
-    public ResponseEntity<?> getUserProfile(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserProfile(@PathVariable Long userId, ServletWebRequest webRequest) {
         try {
+            Optional<UserVersionRow> version = userService.getUserVersionById(userId);
+            if (version.isPresent() && ConditionalGet.notModified(webRequest, version(version.get()), ConditionalGet.PUBLIC)) {
+                return null;
+            }
             UserProfileResponse profile = userService.getUserProfileById(userId);
             return ResponseEntity.ok(profile);
         } catch (RuntimeException e) {
@@ -40,6 +71,11 @@ public class UserController {
         }
     }
     
+    /** Profiles show blog and comment counts, which change without the update timestamp, so ETag only */
+    private static ResourceVersion version(UserVersionRow row) {
+        return ResourceVersion.strong(row.getId(), row.getUpdatedAt(), row.getBlogCount(), row.getCommentCount());
+    }
+    
     @PutMapping("/profile")
     public ResponseEntity<?> updateUserProfile(
             @Valid @RequestBody UserProfileRequest request,
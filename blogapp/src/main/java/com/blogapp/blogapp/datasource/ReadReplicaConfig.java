@@ -0,0 +1,115 @@
+package com.blogapp.blogapp.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Routes {@code @Transactional(readOnly = true)} work to read replicas.
+ *
+ * <p>Replaces Boot's single pool with the primary pool plus one pool per replica, exposed
+ * together as the "dataSource" bean. Off unless {@code app.datasource.replica.enabled=true}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig implements DisposableBean {
+
+    @Value("${app.datasource.replica.urls}")
+    private List<String> urls;
+
+    @Value("${app.datasource.replica.username:${spring.datasource.username}}")
+    private String username;
+
+    @Value("${app.datasource.replica.password:${spring.datasource.password}}")
+    private String password;
+
+    @Value("${app.datasource.replica.maximum-pool-size:20}")
+    private int maximumPoolSize;
+
+    @Value("${app.datasource.replica.connection-timeout:1000}")
+    private long connectionTimeout;
+
+    @Value("${app.datasource.replica.max-lag:5000}")
+    private long maxLagMillis;
+
+    @Value("${app.datasource.replica.read-your-writes-window:5000}")
+    private long readYourWritesWindowMillis;
+
+    private final List<HikariDataSource> replicaPools = new ArrayList<>();
+    private final List<ReplicaDataSource> replicas = new ArrayList<>();
+
+    @PostConstruct
+    void createReplicaPools() {
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + i);
+            pool.setJdbcUrl(urls.get(i).trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(maximumPoolSize);
+            // Fail fast so routing can fall back to the primary instead of queueing
+            pool.setConnectionTimeout(connectionTimeout);
+            pool.setInitializationFailTimeout(-1);
+            pool.setReadOnly(true);
+            replicaPools.add(pool);
+            replicas.add(new ReplicaDataSource(pool.getPoolName(), pool));
+        }
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+                primaryDataSource, replicas, new ReadYourWritesTracker(readYourWritesWindowMillis), meterRegistry);
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(MeterRegistry meterRegistry) {
+        int queryTimeoutSeconds = (int) Math.max(1, connectionTimeout / 1000);
+        return new ReplicaHealthMonitor(replicas, maxLagMillis, queryTimeoutSeconds, meterRegistry);
+    }
+
+    /**
+     * Hibernate normally holds one connection for the whole EntityManager, which under
+     * open-in-view is the whole request: a read-only transaction would pin the replica for a
+     * later write. Releasing after each transaction lets every transaction route on its own.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Override
+    public void destroy() {
+        replicaPools.forEach(HikariDataSource::close);
+    }
+}
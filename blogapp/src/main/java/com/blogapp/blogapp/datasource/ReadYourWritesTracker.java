@@ -0,0 +1,41 @@
+package com.blogapp.blogapp.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users committed a write recently, so their reads can stay on the
+ * primary until the replicas have had time to catch up
+ */
+public class ReadYourWritesTracker {
+
+    /** Expired entries are only swept once the map grows past this size */
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long windowMillis) {
+        this.windowNanos = windowMillis * 1_000_000L;
+    }
+
+    public void recordWrite(String user) {
+        long now = System.nanoTime();
+        pinnedUntil.put(user, now + windowNanos);
+        if (pinnedUntil.size() > SWEEP_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> until - now <= 0);
+        }
+    }
+
+    public boolean isPinnedToPrimary(String user) {
+        Long until = pinnedUntil.get(user);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        pinnedUntil.remove(user, until);
+        return false;
+    }
+}
@@ -0,0 +1,48 @@
+package com.blogapp.blogapp.datasource;
+
+import javax.sql.DataSource;
+
+/**
+ * One read replica pool and the health last observed by {@link ReplicaHealthMonitor}.
+ * Replicas start out unhealthy so nothing is routed to them before the first check.
+ */
+public class ReplicaDataSource {
+
+    private final String name;
+    private final DataSource dataSource;
+
+    private volatile boolean healthy;
+    private volatile long lagMillis = -1;
+
+    public ReplicaDataSource(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /** Replication lag seen by the last successful check, or -1 if unknown */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    void markUp(long lagMillis) {
+        this.lagMillis = lagMillis;
+        this.healthy = true;
+    }
+
+    void markDown(long lagMillis) {
+        this.lagMillis = lagMillis;
+        this.healthy = false;
+    }
+}
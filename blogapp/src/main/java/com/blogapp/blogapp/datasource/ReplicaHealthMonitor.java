@@ -0,0 +1,93 @@
+package com.blogapp.blogapp.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically probes every replica and takes it out of rotation when it is
+ * unreachable or replaying WAL further behind the primary than the allowed lag
+ */
+@Slf4j
+public class ReplicaHealthMonitor {
+
+    /**
+     * Time since the last replayed transaction, or 0 when the replica has replayed everything
+     * it received. A server that is not in recovery (e.g. a second standalone instance used
+     * for local testing) reports 0.
+     */
+    static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END""";
+
+    private final List<ReplicaDataSource> replicas;
+    private final long maxLagMillis;
+    private final int queryTimeoutSeconds;
+
+    public ReplicaHealthMonitor(List<ReplicaDataSource> replicas, long maxLagMillis, int queryTimeoutSeconds,
+                                MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLagMillis;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+
+        for (ReplicaDataSource replica : replicas) {
+            Gauge.builder("blogapp.datasource.replica.lag", replica, ReplicaDataSource::getLagMillis)
+                    .description("Replication lag seen by the last health check, in milliseconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("blogapp.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .description("Whether the replica currently receives read-only transactions")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval:2000}")
+    public void checkReplicas() {
+        replicas.forEach(this::check);
+    }
+
+    void check(ReplicaDataSource replica) {
+        boolean wasHealthy = replica.isHealthy();
+        long lagMillis;
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            try (ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                lagMillis = resultSet.getLong(1);
+            }
+        } catch (SQLException e) {
+            replica.markDown(-1);
+            if (wasHealthy) {
+                log.warn("Replica {} failed its health check, routing reads to the primary: {}",
+                        replica.getName(), e.getMessage());
+            }
+            return;
+        }
+
+        if (lagMillis > maxLagMillis) {
+            replica.markDown(lagMillis);
+            if (wasHealthy) {
+                log.warn("Replica {} is {} ms behind (max {} ms), routing reads to the primary",
+                        replica.getName(), lagMillis, maxLagMillis);
+            }
+        } else {
+            replica.markUp(lagMillis);
+            if (!wasHealthy) {
+                log.info("Replica {} is healthy ({} ms behind), routing reads to it", replica.getName(), lagMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.blogapp.blogapp.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica and everything
+ * else to the primary.
+ *
+ * <p>Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the connection is only fetched at the first statement, once the transaction's
+ * read-only flag is bound. Reads fall back to the primary when no replica is healthy,
+ * when a replica refuses a connection, or when the current user committed a write
+ * within the read-your-writes window.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<ReplicaDataSource> replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaDataSource> replicas,
+                                    ReadYourWritesTracker readYourWritesTracker, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String user = currentUser();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            pinAfterCommit(user);
+            return primaryConnection("write");
+        }
+        if (user != null && readYourWritesTracker.isPinnedToPrimary(user)) {
+            return primaryConnection("read-your-writes");
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaDataSource replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isHealthy()) {
+                continue;
+            }
+            try {
+                Connection connection = replica.getDataSource().getConnection();
+                count(replica.getName(), "read");
+                return connection;
+            } catch (SQLException e) {
+                // Don't wait for the next health check to stop sending traffic there
+                replica.markDown(replica.getLagMillis());
+                log.warn("Replica {} refused a connection, marking it down: {}", replica.getName(), e.getMessage());
+            }
+        }
+        return primaryConnection("no-healthy-replica");
+    }
+
+    /**
+     * Connections for other credentials always come from the primary: the replicas are only
+     * set up for the configured ones. A write still pins its user to the primary.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            pinAfterCommit(currentUser());
+        }
+        Connection connection = primary.getConnection(username, password);
+        count(PRIMARY, "explicit-credentials");
+        return connection;
+    }
+
+    private Connection primaryConnection(String reason) throws SQLException {
+        Connection connection = primary.getConnection();
+        count(PRIMARY, reason);
+        return connection;
+    }
+
+    private void pinAfterCommit(String user) {
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWritesTracker.recordWrite(user);
+            }
+        });
+    }
+
+    private void count(String target, String reason) {
+        meterRegistry.counter("blogapp.datasource.connections", "target", target, "reason", reason).increment();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,31 @@
+package com.blogapp.blogapp.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a batch lookup, in the position of its id in the request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItem<T> {
+    
+    private Long id;
+    private boolean found;
+    private T data; // Null when not found
+    
+    /** One item per requested id, in request order, duplicates included */
+    public static <T> List<BatchItem<T>> inRequestOrder(List<Long> ids, Map<Long, T> found) {
+        return ids.stream()
+                .map(id -> {
+                    T data = found.get(id);
+                    return new BatchItem<>(id, data != null, data);
+                })
+                .toList();
+    }
+}
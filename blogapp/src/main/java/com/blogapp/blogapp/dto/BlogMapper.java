@@ -0,0 +1,155 @@
+package com.blogapp.blogapp.dto;
+
+import java.util.Collections;
+
+import com.blogapp.blogapp.entity.Blog;
+import com.blogapp.blogapp.repository.BlogSummaryRow;
+
+/**
+ * Converts blog entities to response DTOs. Shared by controllers and services that
+ * hand DTOs across threads or keep them in memory.
+ */
+public final class BlogMapper {
+
+    private BlogMapper() {
+    }
+
+    public static BlogResponse toBlogResponse(Blog blog) {
+        BlogResponse.AuthorInfo authorInfo = new BlogResponse.AuthorInfo(
+            blog.getAuthor().getId(),
+            blog.getAuthor().getEmail(),
+            blog.getAuthor().getFirstName(),
+            blog.getAuthor().getLastName()
+        );
+
+        return new BlogResponse(
+            blog.getId(),
+            blog.getTitle(),
+            blog.getContent(),
+            Collections.emptyList(), // No tags
+            blog.getViewCount(),
+            null, // Only known when the view is counted
+            blog.getCommentCount(),
+            authorInfo,
+            blog.getCreatedAt(),
+            blog.getUpdatedAt()
+        );
+    }
+
+    public static BlogSummaryResponse toBlogSummaryResponse(Blog blog) {
+        BlogSummaryResponse.AuthorInfo authorInfo = new BlogSummaryResponse.AuthorInfo(
+            blog.getAuthor().getId(),
+            blog.getAuthor().getEmail(),
+            blog.getAuthor().getFirstName(),
+            blog.getAuthor().getLastName()
+        );
+
+        return new BlogSummaryResponse(
+            blog.getId(),
+            blog.getTitle(),
+            contentPreview(blog.getContent()),
+            Collections.emptyList(), // No tags
+            blog.getViewCount(),
+            blog.getCommentCount(),
+            authorInfo,
+            blog.getCreatedAt(),
+            blog.getUpdatedAt(),
+            null
+        );
+    }
+
+    public static BlogSummaryResponse toBlogSummaryResponse(BlogSummaryRow row, String snippet) {
+        BlogSummaryResponse.AuthorInfo authorInfo = new BlogSummaryResponse.AuthorInfo(
+            row.getAuthorId(),
+            row.getAuthorEmail(),
+            row.getAuthorFirstName(),
+            row.getAuthorLastName()
+        );
+
+        return new BlogSummaryResponse(
+            row.getId(),
+            row.getTitle(),
+            contentPreview(row.getContentHead()),
+            Collections.emptyList(), // No tags
+            row.getViewCount(),
+            row.getCommentCount(),
+            authorInfo,
+            row.getCreatedAt(),
+            row.getUpdatedAt(),
+            snippet
+        );
+    }
+
+    public static BlogSummaryResponse toBlogSummaryResponse(BlogResponse blog) {
+        BlogSummaryResponse.AuthorInfo authorInfo = new BlogSummaryResponse.AuthorInfo(
+            blog.getAuthor().getId(),
+            blog.getAuthor().getEmail(),
+            blog.getAuthor().getFirstName(),
+            blog.getAuthor().getLastName()
+        );
+
+        return new BlogSummaryResponse(
+            blog.getId(),
+            blog.getTitle(),
+            contentPreview(blog.getContent()),
+            blog.getTags(),
+            blog.getViewCount(),
+            blog.getCommentCount(),
+            authorInfo,
+            blog.getCreatedAt(),
+            blog.getUpdatedAt(),
+            null
+        );
+    }
+
+    /** Copy with another view count, so a shared response is never modified */
+    public static BlogResponse withViewCount(BlogResponse response, Long viewCount) {
+        return new BlogResponse(
+            response.getId(),
+            response.getTitle(),
+            response.getContent(),
+            response.getTags(),
+            viewCount,
+            response.getUniqueViewers(),
+            response.getCommentCount(),
+            response.getAuthor(),
+            response.getCreatedAt(),
+            response.getUpdatedAt()
+        );
+    }
+
+    public static BlogSummaryResponse withViewCount(BlogSummaryResponse summary, Long viewCount) {
+        return new BlogSummaryResponse(
+            summary.getId(),
+            summary.getTitle(),
+            summary.getContentPreview(),
+            summary.getTags(),
+            viewCount,
+            summary.getCommentCount(),
+            summary.getAuthor(),
+            summary.getCreatedAt(),
+            summary.getUpdatedAt(),
+            summary.getSnippet()
+        );
+    }
+
+    public static BlogSummaryResponse withCommentCount(BlogSummaryResponse summary, Long commentCount) {
+        return new BlogSummaryResponse(
+            summary.getId(),
+            summary.getTitle(),
+            summary.getContentPreview(),
+            summary.getTags(),
+            summary.getViewCount(),
+            commentCount,
+            summary.getAuthor(),
+            summary.getCreatedAt(),
+            summary.getUpdatedAt(),
+            summary.getSnippet()
+        );
+    }
+
+    // Create content preview (first 200 characters)
+    public static String contentPreview(String content) {
+        return content.length() > 200 ? content.substring(0, 200) + "..." : content;
+    }
+}
@@ -10,6 +10,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@SparseFields
 public class BlogResponse {
     
     private Long id;
@@ -17,6 +18,8 @@ public class BlogResponse {
     private String content;
     private List<String> tags;
     private Long viewCount;
+    private Long uniqueViewers; // HyperLogLog estimate, about 1.6% standard error
+    private Long commentCount;
     private AuthorInfo author;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -24,6 +27,7 @@ public class BlogResponse {
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
+    @SparseFields
     public static class AuthorInfo {
         private Long id;
         private String email;
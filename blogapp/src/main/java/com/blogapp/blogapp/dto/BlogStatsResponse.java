@@ -0,0 +1,29 @@
+package com.blogapp.blogapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlogStatsResponse {
+    
+    private Long blogId;
+    private LocalDate from;
+    private LocalDate to;
+    private String granularity; // day, week or month
+    private Long totalViews;
+    private List<Point> points; // Periods starting in the range, oldest first
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate periodStart;
+        private Long views;
+    }
+}
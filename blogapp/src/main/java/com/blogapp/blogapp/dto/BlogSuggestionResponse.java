@@ -0,0 +1,15 @@
+package com.blogapp.blogapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlogSuggestionResponse {
+    
+    private Long id;
+    private String title;
+    private Long viewCount; // As of the last index refresh
+}
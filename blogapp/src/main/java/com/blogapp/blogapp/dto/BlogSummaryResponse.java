@@ -10,6 +10,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@SparseFields
 public class BlogSummaryResponse {
     
     private Long id;
@@ -17,13 +18,16 @@ public class BlogSummaryResponse {
     private String contentPreview; // First 200 characters of content
     private List<String> tags;
     private Long viewCount;
+    private Long commentCount;
     private AuthorInfo author;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private String snippet; // Search results only: HTML-escaped context around the matches, in <mark> tags
     
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
+    @SparseFields
     public static class AuthorInfo {
         private Long id;
         private String email;
@@ -0,0 +1,34 @@
+package com.blogapp.blogapp.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of GET /api/changes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedResponse {
+    
+    private List<Change> changes; // Commit order
+    private Long next; // Token for the next request: the last seq here, or the one given
+    private boolean hasMore;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private Long seq;
+        private String type; // BLOG or COMMENT
+        private Long id;
+        private String action; // CREATED, UPDATED or DELETED
+        private Long blogId; // Of a comment
+        private LocalDateTime changedAt;
+        private Object data; // BlogResponse or CommentResponse as of now; null for deletes
+    }
+}
@@ -14,4 +14,7 @@ public class CommentRequest {
     @NotBlank(message = "Comment content is required")
     @Size(min = 1, max = 1000, message = "Comment must be between 1 and 1000 characters")
     private String content;
+    
+    /** The comment this one replies to, on the same blog; null for a top-level comment */
+    private Long parentId;
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@SparseFields
 public class CommentResponse {
     
     private Long id;
@@ -19,4 +20,7 @@ public class CommentResponse {
     private Boolean isEdited;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long parentId;
+    private Integer depth;
+    private Integer replyCount;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.blogapp.blogapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A top-level comment with the first of its replies in reading order, each reply carrying its
+ * parent and depth to be nested; comment.replyCount minus the replies shown are still to load
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentThreadResponse {
+    
+    private CommentResponse comment;
+    private List<CommentResponse> replies;
+}
@@ -0,0 +1,21 @@
+package com.blogapp.blogapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset-paged list. Unlike PageResponse there is no total, which would cost
+ * a count of every row; the client asks for the next page with the given cursor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private String next; // Cursor of the following page, null on the last one
+    private boolean hasMore;
+}
@@ -0,0 +1,15 @@
+package com.blogapp.blogapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedPostResponse {
+    
+    private Long id;
+    private String title;
+    private Double similarity; // Estimated share of common word 3-shingles, 0 to 1
+}
@@ -0,0 +1,15 @@
+package com.blogapp.blogapp.dto;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a response whose properties follow the request's {@code ?fields=} selection.
+ * Nested marked objects are addressed by path, e.g. {@code author.firstName}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SparseFields {
+}
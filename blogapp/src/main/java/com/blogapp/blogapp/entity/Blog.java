@@ -14,6 +14,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -23,7 +24,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "blogs")
+@Table(name = "blogs", indexes = {
+    @Index(name = "idx_blogs_author_created_at", columnList = "author_id, created_at DESC"),
+    @Index(name = "idx_blogs_created_at", columnList = "created_at DESC"),
+    @Index(name = "idx_blogs_view_count", columnList = "view_count DESC"),
+    @Index(name = "idx_blogs_title", columnList = "title")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -42,6 +48,14 @@ public class Blog {
     @Column(name = "view_count", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
     private Long viewCount = 0L;
     
+    /**
+     * Comments on the blog, only changed by BlogRepository.addToCommentCount and
+     * CommentCountReconciler, so that saving a blog never writes back a stale count.
+     * Null until counted for blogs written around the services, e.g. bulk-loaded ones.
+     */
+    @Column(name = "comment_count", updatable = false)
+    private Long commentCount = 0L;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
@@ -9,7 +9,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "blog_images")
+@Table(name = "blog_images", indexes = {
+    @Index(name = "idx_blog_images_blog_id", columnList = "blog_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,42 @@
+package com.blogapp.blogapp.entity;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * MinHash signature of a blog's content, written by RelatedPostsService
+ */
+@Entity
+@Table(name = "blog_signatures")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlogSignature {
+    
+    @Id
+    @Column(name = "blog_id")
+    private Long blogId;
+    
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "blog_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private Blog blog;
+    
+    @Column(name = "signature", nullable = false)
+    private byte[] signature;
+}
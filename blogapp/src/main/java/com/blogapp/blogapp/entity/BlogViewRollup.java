@@ -0,0 +1,70 @@
+package com.blogapp.blogapp.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Views of one blog in one day, week or month, written by ViewAnalyticsService.
+ * Weeks start on Monday; week and month rows are rebuilt from the day rows.
+ */
+@Entity
+@Table(name = "blog_view_rollups", indexes = {
+    @Index(name = "idx_blog_view_rollups_granularity_period", columnList = "granularity, period_start")
+})
+@IdClass(BlogViewRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlogViewRollup {
+    
+    public enum Granularity {
+        DAY, WEEK, MONTH
+    }
+    
+    @Id
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blog_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private Blog blog;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 5)
+    private Granularity granularity;
+    
+    @Id
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+    
+    @Column(name = "views", nullable = false)
+    private Long views;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long blog;
+        private Granularity granularity;
+        private LocalDate periodStart;
+    }
+}
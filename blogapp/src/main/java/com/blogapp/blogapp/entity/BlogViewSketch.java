@@ -0,0 +1,49 @@
+package com.blogapp.blogapp.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * HyperLogLog sketch of the distinct viewers of one blog, written by UniqueViewerService
+ */
+@Entity
+@Table(name = "blog_view_sketches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlogViewSketch {
+    
+    @Id
+    @Column(name = "blog_id")
+    private Long blogId;
+    
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "blog_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private Blog blog;
+    
+    @Column(name = "registers", nullable = false)
+    private byte[] registers;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
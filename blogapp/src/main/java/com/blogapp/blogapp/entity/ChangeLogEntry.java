@@ -0,0 +1,73 @@
+package com.blogapp.blogapp.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The latest change of one blog or comment, written by ChangeLog. A new change moves the
+ * row to a higher sequence number; deletes stay behind as tombstones. No foreign keys, so
+ * the tombstones outlive what they point to.
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+    @Index(name = "idx_change_log_seq", columnList = "seq", unique = true),
+    @Index(name = "idx_change_log_blog_seq", columnList = "blog_id, seq")
+})
+@IdClass(ChangeLogEntry.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+
+    public enum EntityType {
+        BLOG, COMMENT
+    }
+
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", length = 7)
+    private EntityType entityType;
+
+    @Id
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    /** Position in commit order; higher is later */
+    @Column(name = "seq", nullable = false)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action", length = 7, nullable = false)
+    private Action action;
+
+    /** The blog a comment belongs to; null for blogs */
+    @Column(name = "blog_id")
+    private Long blogId;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private EntityType entityType;
+        private Long entityId;
+    }
+}
@@ -4,13 +4,19 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.blogapp.blogapp.util.CommentPath;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+    @Index(name = "idx_comments_blog_created_at_id", columnList = "blog_id, created_at DESC, id DESC"),
+    @Index(name = "idx_comments_author_created_at_id", columnList = "author_id, created_at DESC, id DESC"),
+    @Index(name = "idx_comments_blog_path", columnList = "blog_id, path"),
+    @Index(name = "idx_comments_blog_parent", columnList = "blog_id, parent_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +37,26 @@ public class Comment {
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
     
+    /** Null for a top-level comment */
+    @Column(name = "parent_id")
+    private Long parentId;
+    
+    /**
+     * Ids from the top-level comment down to this one, see CommentPath; compared byte by byte
+     * so that a thread is one range of idx_comments_blog_path
+     */
+    @Column(name = "path", length = CommentPath.MAX_LENGTH,
+            columnDefinition = "VARCHAR(" + CommentPath.MAX_LENGTH + ") COLLATE \"C\"")
+    private String path;
+    
+    /**
+     * Replies at every depth below this comment, only changed by CommentRepository.addToReplyCounts
+     * so that saving a comment never writes back a count read before a concurrent reply
+     */
+    @Column(name = "reply_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "INTEGER DEFAULT 0")
+    private Integer replyCount = 0;
+    
     @Column(name = "is_edited", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
     private Boolean isEdited = false;
     
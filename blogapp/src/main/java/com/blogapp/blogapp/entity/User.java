@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_updated_at", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -47,6 +49,17 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /**
+     * Blogs and comments written by the user, only changed by UserRepository.addToBlogCount and
+     * addToCommentCount and by UserCountReconciler, so that saving a user never writes back a
+     * stale count. Null until counted for users written around the services, e.g. bulk-loaded ones.
+     */
+    @Column(name = "blog_count", updatable = false)
+    private Long blogCount = 0L;
+    
+    @Column(name = "comment_count", updatable = false)
+    private Long commentCount = 0L;
+    
     @OneToMany(mappedBy = "author", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Blog> blogs;
     
@@ -0,0 +1,179 @@
+package com.blogapp.blogapp.feed;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.blogapp.blogapp.cache.CacheInvalidationListener;
+import com.blogapp.blogapp.cache.CacheKeys;
+import com.blogapp.blogapp.dto.BlogMapper;
+import com.blogapp.blogapp.dto.BlogSummaryResponse;
+import com.blogapp.blogapp.dto.PageResponse;
+import com.blogapp.blogapp.entity.Blog;
+import com.blogapp.blogapp.service.BlogService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The first pages of the public feed for each sort, serialized and gzipped ahead of time,
+ * so {@link FeedPageFilter} can answer them with a plain byte write.
+ *
+ * <p>Pages are rebuilt in the background every refresh interval, which is when view and
+ * comment counts catch up, and as soon as a blog or author changes. A change drops the pages first: until
+ * the rebuild lands, requests take the regular path, so a new post shows up right away.
+ * Pages read while another change came in are thrown away, as in the search result cache.
+ */
+@Slf4j
+@Service
+public class FeedPageCache implements CacheInvalidationListener {
+
+    /** Sorts served from the cache; trending is already served from memory */
+    static final List<String> SORTS = List.of("date", "popularity", "title");
+
+    private final BlogService blogService;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final int pageCount;
+    private final int pageSize;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Map<Key, FeedPage> pages = Map.of();
+
+    record Key(String sortBy, int page) {
+    }
+
+    /** One page as written to the response, with a strong ETag for each encoding */
+    public record FeedPage(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+    }
+
+    public FeedPageCache(BlogService blogService, ObjectMapper objectMapper, TaskScheduler taskScheduler,
+                         @Value("${app.feed.cache.pages:3}") int pageCount,
+                         @Value("${app.feed.cache.page-size:10}") int pageSize,
+                         MeterRegistry meterRegistry) {
+        this.blogService = blogService;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.pageCount = pageCount;
+        this.pageSize = pageSize;
+        this.hits = meterRegistry.counter("blogapp.feed.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("blogapp.feed.cache.requests", "result", "miss");
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    /** The cached page, or null when it is not cached or being rebuilt after a change */
+    public FeedPage get(String sortBy, int page) {
+        FeedPage cached = pages.get(new Key(sortBy.toLowerCase(Locale.ROOT), page));
+        (cached != null ? hits : misses).increment();
+        return cached;
+    }
+
+    @Scheduled(fixedDelayString = "${app.feed.cache.refresh-interval:10000}")
+    public void refresh() {
+        requestRebuild();
+    }
+
+    @Override
+    public void invalidate(Set<String> keys) {
+        // Summaries carry the author's name and email
+        if (keys.stream().map(CacheKeys::typeOf).anyMatch(type -> CacheKeys.BLOG.equals(type) || CacheKeys.USER.equals(type))) {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (this) {
+            generation.incrementAndGet();
+            pages = Map.of();
+        }
+        requestRebuild();
+    }
+
+    /** Queues one rebuild; requests made while one is queued are folded into it */
+    private void requestRebuild() {
+        if (pageCount > 0 && rebuildQueued.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::rebuild, Instant.now());
+        }
+    }
+
+    void rebuild() {
+        rebuildQueued.set(false);
+        long started = System.currentTimeMillis();
+        long readAtGeneration = generation.get();
+        Map<Key, FeedPage> fresh = new HashMap<>();
+        try {
+            for (String sortBy : SORTS) {
+                // One query per sort covers all cached pages
+                Page<Blog> blogs = blogService.getAllBlogs(PageRequest.of(0, pageCount * pageSize), sortBy);
+                List<BlogSummaryResponse> summaries = blogService.withCommentCounts(blogs.getContent().stream()
+                        .map(BlogMapper::toBlogSummaryResponse)
+                        .toList());
+                for (int page = 0; page < pageCount; page++) {
+                    List<BlogSummaryResponse> content = summaries.subList(
+                            Math.min(page * pageSize, summaries.size()), Math.min((page + 1) * pageSize, summaries.size()));
+                    fresh.put(new Key(sortBy, page), encode(PageResponse.of(
+                            new PageImpl<>(content, PageRequest.of(page, pageSize), blogs.getTotalElements()))));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the feed pages, requests take the regular path: {}", e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            // A change committed while the pages were read may not be in them; its rebuild is queued
+            if (readAtGeneration == generation.get()) {
+                pages = Map.copyOf(fresh);
+            }
+        }
+        log.debug("Feed pages rebuilt in {} ms", System.currentTimeMillis() - started);
+    }
+
+    private FeedPage encode(PageResponse<BlogSummaryResponse> page) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(page);
+            String hash = DigestUtils.md5DigestAsHex(json);
+            return new FeedPage(json, gzip(json), "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize a feed page", e);
+        }
+    }
+
+    static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,148 @@
+package com.blogapp.blogapp.feed;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Answers GET /api/blogs for the first feed pages from {@link FeedPageCache}: no query,
+ * no mapping and no Jackson, only a byte write, gzipped when the client accepts it.
+ *
+ * <p>The feed is the same for every caller, so any request qualifies as long as it asks for
+ * nothing beyond page, size (the cached page size) and a cached sort, in JSON. Everything
+ * else, and any page not cached right now, goes on to the controller. Runs after the
+ * security filters, so CORS headers are already set.
+ */
+@Component
+public class FeedPageFilter extends OncePerRequestFilter {
+
+    private static final String FEED_PATH = "/api/blogs";
+    private static final Set<String> CACHED_PARAMETERS = Set.of("page", "size", "sortBy");
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+    private final FeedPageCache feedPageCache;
+
+    public FeedPageFilter(FeedPageCache feedPageCache) {
+        this.feedPageCache = feedPageCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !request.getRequestURI().equals(request.getContextPath() + FEED_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        FeedPageCache.FeedPage page = cachedPage(request);
+        if (page == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? page.gzipEtag() : page.etag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.VARY, VARY);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), page)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? page.gzip() : page.json();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private FeedPageCache.FeedPage cachedPage(HttpServletRequest request) {
+        Enumeration<String> names = request.getParameterNames();
+        while (names.hasMoreElements()) {
+            if (!CACHED_PARAMETERS.contains(names.nextElement())) {
+                return null;
+            }
+        }
+        if (!acceptsJson(request.getHeader(HttpHeaders.ACCEPT))) {
+            return null;
+        }
+
+        String sortBy = request.getParameter("sortBy");
+        if (sortBy == null) {
+            sortBy = "date";
+        }
+        if (FeedPageCache.SORTS.stream().noneMatch(sortBy::equalsIgnoreCase)) {
+            return null;
+        }
+        try {
+            String page = request.getParameter("page");
+            String size = request.getParameter("size");
+            if (size != null && Integer.parseInt(size) != feedPageCache.pageSize()) {
+                return null;
+            }
+            return feedPageCache.get(sortBy, page != null ? Integer.parseInt(page) : 0);
+        } catch (NumberFormatException e) {
+            // The controller reports it
+            return null;
+        }
+    }
+
+    /** JSON is what the client asks for, rather than CBOR or Smile */
+    static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            return mediaTypes.stream().noneMatch(type -> "cbor".equals(type.getSubtype()) || type.getSubtype().contains("smile"))
+                    && mediaTypes.stream().anyMatch(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON) && type.getQualityValue() > 0);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String ifNoneMatch, FeedPageCache.FeedPage page) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String etag = tag.trim();
+            if (etag.startsWith("W/")) {
+                etag = etag.substring(2);
+            }
+            if (etag.equals("*") || etag.equals(page.etag()) || etag.equals(page.gzipEtag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,187 @@
+package com.blogapp.blogapp.feed;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.blogapp.cache.CacheInvalidationListener;
+import com.blogapp.blogapp.cache.CacheKeys;
+import com.blogapp.blogapp.util.ResourceVersion;
+
+/**
+ * Sitemaps of every post: an index of parts, and parts of up to urls-per-part posts each,
+ * the protocol's limit being 50,000. Part n holds the posts with ids in
+ * (n * urls-per-part, (n + 1) * urls-per-part], so a post never moves between parts and a
+ * part only changes when one of its own posts does.
+ *
+ * <p>The list of parts with their size and latest update comes from one aggregate over
+ * {@code blogs}, kept until a blog changes; it gives both the index and the validators of
+ * every part, so revalidations are answered without reading a post. A part is written in
+ * keyset batches of ids and update times, so memory stays constant and no connection is
+ * held while the client reads.
+ */
+@Service
+public class SitemapService implements CacheInvalidationListener {
+
+    static final String NAMESPACE = "http://www.sitemaps.org/schemas/sitemap/0.9";
+
+    private static final String PARTS_SQL = "SELECT (id - 1) / ? AS part, COUNT(*) AS urls, "
+            + "MAX(COALESCE(updated_at, created_at)) AS last_modified FROM blogs GROUP BY 1 ORDER BY 1";
+    private static final String URLS_SQL = "SELECT id, COALESCE(updated_at, created_at) AS last_modified FROM blogs "
+            + "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicLong generation = new AtomicLong();
+    private final int urlsPerPart;
+    private final int batchSize;
+    private final String blogUrl;
+
+    private volatile List<Part> parts;
+
+    /**
+     * One sitemap file; the version covers its size and latest update, ETag only, as a deleted
+     * post shrinks the file without a later update
+     */
+    public record Part(int number, long urls, LocalDateTime lastModified) {
+
+        public ResourceVersion version(String encoding) {
+            return ResourceVersion.strong(number, urls, lastModified, encoding);
+        }
+    }
+
+    public SitemapService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          @Value("${app.sitemap.urls-per-part:50000}") int urlsPerPart,
+                          @Value("${app.sitemap.batch-size:5000}") int batchSize,
+                          @Value("${app.syndication.site-url:http://localhost:3000}") String siteUrl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.urlsPerPart = urlsPerPart;
+        this.batchSize = batchSize;
+        this.blogUrl = (siteUrl.endsWith("/") ? siteUrl : siteUrl + "/") + "blog/";
+    }
+
+    public List<Part> getParts() {
+        List<Part> cached = parts;
+        if (cached != null) {
+            return cached;
+        }
+        long readAtGeneration = generation.get();
+        List<Part> fresh = readOnlyTransaction.execute(status -> jdbcTemplate.query(PARTS_SQL, (row, rowNum) -> new Part(
+                row.getInt("part"), row.getLong("urls"), row.getTimestamp("last_modified").toLocalDateTime()), urlsPerPart));
+        synchronized (this) {
+            // A change committed while the parts were read may not be in them
+            if (readAtGeneration == generation.get()) {
+                parts = fresh;
+            }
+        }
+        return fresh;
+    }
+
+    public Optional<Part> getPart(int number) {
+        return getParts().stream().filter(part -> part.number() == number).findFirst();
+    }
+
+    /** The index, with part n at {@code partUrlPrefix + n + ".xml"} */
+    public void writeIndex(OutputStream out, String partUrlPrefix) throws XMLStreamException {
+        XMLStreamWriter xml = start(out, "sitemapindex");
+        for (Part part : getParts()) {
+            xml.writeStartElement(NAMESPACE, "sitemap");
+            element(xml, "loc", partUrlPrefix + part.number() + ".xml");
+            element(xml, "lastmod", lastmod(part.lastModified()));
+            xml.writeEndElement();
+        }
+        end(xml);
+    }
+
+    /** Streams one part, batch by batch, flushing each to the client */
+    public void writePart(int number, OutputStream out) throws XMLStreamException {
+        XMLStreamWriter xml = start(out, "urlset");
+        long after = (long) number * urlsPerPart;
+        long last = after + urlsPerPart;
+        List<UrlRow> batch;
+        do {
+            batch = batch(after, last);
+            for (UrlRow url : batch) {
+                xml.writeStartElement(NAMESPACE, "url");
+                element(xml, "loc", blogUrl + url.id());
+                element(xml, "lastmod", lastmod(url.lastModified()));
+                xml.writeEndElement();
+                after = url.id();
+            }
+            xml.flush();
+        } while (batch.size() == batchSize);
+        end(xml);
+    }
+
+    private record UrlRow(long id, LocalDateTime lastModified) {
+    }
+
+    private List<UrlRow> batch(long after, long last) {
+        List<UrlRow> rows = new ArrayList<>(batchSize);
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(URLS_SQL, (RowCallbackHandler) row ->
+                rows.add(new UrlRow(row.getLong("id"), row.getTimestamp("last_modified").toLocalDateTime())),
+                after, last, batchSize));
+        return rows;
+    }
+
+    private static XMLStreamWriter start(OutputStream out, String root) throws XMLStreamException {
+        XMLStreamWriter xml = OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.setDefaultNamespace(NAMESPACE);
+        xml.writeStartElement(NAMESPACE, root);
+        xml.writeDefaultNamespace(NAMESPACE);
+        return xml;
+    }
+
+    private static void end(XMLStreamWriter xml) throws XMLStreamException {
+        xml.writeEndDocument();
+        xml.flush();
+        xml.close();
+    }
+
+    private static void element(XMLStreamWriter xml, String name, String text) throws XMLStreamException {
+        xml.writeStartElement(NAMESPACE, name);
+        xml.writeCharacters(text);
+        xml.writeEndElement();
+    }
+
+    private static String lastmod(LocalDateTime time) {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(time.truncatedTo(ChronoUnit.SECONDS).atZone(ZoneId.systemDefault()));
+    }
+
+    @Override
+    public void invalidate(Set<String> keys) {
+        if (keys.stream().anyMatch(key -> CacheKeys.BLOG.equals(CacheKeys.typeOf(key)))) {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (this) {
+            generation.incrementAndGet();
+            parts = null;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.blogapp.blogapp.feed;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import com.blogapp.blogapp.cache.CacheInvalidationListener;
+import com.blogapp.blogapp.cache.CacheKeys;
+import com.blogapp.blogapp.entity.User;
+import com.blogapp.blogapp.repository.BlogRepository;
+import com.blogapp.blogapp.repository.BlogSummaryRow;
+import com.blogapp.blogapp.repository.UserRepository;
+import com.blogapp.blogapp.util.ResourceVersion;
+import com.blogapp.blogapp.util.SingleFlight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * RSS and Atom feeds of the newest posts, site-wide and per author, rendered once and kept
+ * as bytes with their version. A poll is a map lookup and, for a reader that sends its
+ * ETag back, a 304.
+ *
+ * <p>A feed is rendered again only when it is requested after a blog or author change,
+ * the same rule as the search result cache; misses for the same feed share one rendering.
+ * The bytes depend only on the entries, so a change that leaves a feed as it was (another
+ * author's post) renders it to the same ETag and readers still get their 304.
+ */
+@Service
+public class SyndicationFeedService implements CacheInvalidationListener {
+
+    public enum Format {
+        RSS("application/rss+xml"), ATOM("application/atom+xml");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+    }
+
+    /** A rendered feed with its validators */
+    public record Feed(byte[] xml, ResourceVersion version) {
+    }
+
+    /** Null author for the site-wide feed */
+    record Key(Long authorId, Format format) {
+    }
+
+    private final BlogRepository blogRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Key, Feed> feeds;
+    private final SingleFlight<Key, Optional<Feed>> renders;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${app.syndication.entries:20}")
+    private int entries;
+
+    @Value("${app.syndication.site-url:http://localhost:3000}")
+    private String siteUrl;
+
+    @Value("${app.syndication.title:BlogApp}")
+    private String title;
+
+    public SyndicationFeedService(BlogRepository blogRepository, UserRepository userRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.syndication.cache.max-entries:1000}") int maxEntries,
+                                  @Value("${app.single-flight.timeout:2000}") long singleFlightTimeoutMillis,
+                                  MeterRegistry meterRegistry) {
+        this.blogRepository = blogRepository;
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.feeds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Feed> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.renders = new SingleFlight<>("syndication-feed", Duration.ofMillis(singleFlightTimeoutMillis), meterRegistry);
+        this.hits = meterRegistry.counter("blogapp.syndication.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("blogapp.syndication.cache.requests", "result", "miss");
+    }
+
+    public Feed getSiteFeed(Format format) {
+        return get(new Key(null, format)).orElseThrow();
+    }
+
+    /** Empty when there is no such user */
+    public Optional<Feed> getAuthorFeed(Long authorId, Format format) {
+        return get(new Key(authorId, format));
+    }
+
+    private Optional<Feed> get(Key key) {
+        Feed cached;
+        synchronized (feeds) {
+            cached = feeds.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        return renders.execute(key, () -> {
+            long renderedAtGeneration = generation.get();
+            Optional<Feed> feed = readOnlyTransaction.execute(status -> render(key));
+            feed.ifPresent(rendered -> {
+                synchronized (feeds) {
+                    // A change committed while the feed was read may not be in it
+                    if (renderedAtGeneration == generation.get()) {
+                        feeds.put(key, rendered);
+                    }
+                }
+            });
+            return feed;
+        });
+    }
+
+    private Optional<Feed> render(Key key) {
+        String feedTitle = title;
+        String description = "The newest posts on " + title;
+        String path = "/feed";
+        if (key.authorId() != null) {
+            Optional<User> author = userRepository.findById(key.authorId());
+            if (author.isEmpty()) {
+                return Optional.empty();
+            }
+            String name = (author.get().getFirstName() + " " + author.get().getLastName()).trim();
+            feedTitle = name + " - " + title;
+            description = "The newest posts by " + name + " on " + title;
+            path = "/users/" + key.authorId() + "/feed";
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        LocalDateTime updated;
+        try (Stream<BlogSummaryRow> rows = key.authorId() == null
+                ? blogRepository.streamLatestSummaryRows(Limit.of(entries))
+                : blogRepository.streamLatestSummaryRowsByAuthorId(key.authorId(), Limit.of(entries))) {
+            SyndicationFeedWriter writer = new SyndicationFeedWriter(out, key.format(), siteUrl);
+            writer.start(feedTitle, description, path);
+            for (BlogSummaryRow row : (Iterable<BlogSummaryRow>) rows::iterator) {
+                writer.entry(row);
+            }
+            updated = writer.end();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Could not render a feed", e);
+        }
+
+        byte[] xml = out.toByteArray();
+        long lastModified = updated != null ? updated.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+        return Optional.of(new Feed(xml, new ResourceVersion(DigestUtils.md5DigestAsHex(xml), lastModified, false)));
+    }
+
+    @Override
+    public void invalidate(Set<String> keys) {
+        // Entries carry the author's name
+        if (keys.stream().map(CacheKeys::typeOf).anyMatch(type -> CacheKeys.BLOG.equals(type) || CacheKeys.USER.equals(type))) {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (feeds) {
+            generation.incrementAndGet();
+            feeds.clear();
+        }
+    }
+}
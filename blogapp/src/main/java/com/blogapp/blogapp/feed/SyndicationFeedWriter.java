@@ -0,0 +1,144 @@
+package com.blogapp.blogapp.feed;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.blogapp.blogapp.feed.SyndicationFeedService.Format;
+import com.blogapp.blogapp.repository.BlogSummaryRow;
+
+/**
+ * Writes an RSS 2.0 or Atom feed one entry at a time with a StAX writer, so entries can be
+ * written straight from a streamed query without holding them.
+ *
+ * <p>The feed's own date is the latest update among its entries, only known at the end, so
+ * it is written after them; neither format fixes the order of channel or feed children. The
+ * output depends only on the entries, so an unchanged feed renders to the same bytes.
+ */
+final class SyndicationFeedWriter {
+
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+    private static final String DC_NS = "http://purl.org/dc/elements/1.1/";
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final int SUMMARY_LENGTH = 200;
+    /** Characters XML 1.0 cannot carry even escaped, e.g. control characters pasted into a post */
+    private static final Pattern NOT_XML = Pattern.compile("[^\\x09\\x0A\\x0D\\x20-\\uD7FF\\uE000-\\uFFFD\\x{10000}-\\x{10FFFF}]");
+
+    private final XMLStreamWriter xml;
+    private final Format format;
+    private final String siteUrl;
+    private LocalDateTime updated;
+
+    SyndicationFeedWriter(OutputStream out, Format format, String siteUrl) throws XMLStreamException {
+        this.xml = OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+        this.format = format;
+        this.siteUrl = siteUrl.endsWith("/") ? siteUrl.substring(0, siteUrl.length() - 1) : siteUrl;
+    }
+
+    /** Opens the feed; the path, relative to the site, makes the Atom feed id */
+    void start(String title, String description, String path) throws XMLStreamException {
+        xml.writeStartDocument("UTF-8", "1.0");
+        if (format == Format.RSS) {
+            xml.writeStartElement("rss");
+            xml.writeAttribute("version", "2.0");
+            xml.writeNamespace("dc", DC_NS);
+            xml.writeStartElement("channel");
+            element("title", title);
+            element("link", siteUrl + "/");
+            element("description", description);
+        } else {
+            xml.setDefaultNamespace(ATOM_NS);
+            xml.writeStartElement(ATOM_NS, "feed");
+            xml.writeDefaultNamespace(ATOM_NS);
+            element("title", title);
+            element("subtitle", description);
+            element("id", siteUrl + path);
+            xml.writeEmptyElement(ATOM_NS, "link");
+            xml.writeAttribute("href", siteUrl + "/");
+        }
+    }
+
+    void entry(BlogSummaryRow row) throws XMLStreamException {
+        String link = siteUrl + "/blog/" + row.getId();
+        String author = (row.getAuthorFirstName() + " " + row.getAuthorLastName()).trim();
+        LocalDateTime entryUpdated = row.getUpdatedAt() != null ? row.getUpdatedAt() : row.getCreatedAt();
+        if (updated == null || entryUpdated.isAfter(updated)) {
+            updated = entryUpdated;
+        }
+
+        if (format == Format.RSS) {
+            xml.writeStartElement("item");
+            element("title", row.getTitle());
+            element("link", link);
+            xml.writeStartElement("guid");
+            xml.writeAttribute("isPermaLink", "true");
+            xml.writeCharacters(link);
+            xml.writeEndElement();
+            xml.writeStartElement(DC_NS, "creator");
+            xml.writeCharacters(NOT_XML.matcher(author).replaceAll(""));
+            xml.writeEndElement();
+            element("pubDate", DateTimeFormatter.RFC_1123_DATE_TIME.format(zoned(row.getCreatedAt())));
+            element("description", summary(row.getContentHead()));
+        } else {
+            xml.writeStartElement(ATOM_NS, "entry");
+            element("title", row.getTitle());
+            element("id", link);
+            xml.writeEmptyElement(ATOM_NS, "link");
+            xml.writeAttribute("href", link);
+            element("published", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(zoned(row.getCreatedAt())));
+            element("updated", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(zoned(entryUpdated)));
+            xml.writeStartElement(ATOM_NS, "author");
+            element("name", author);
+            xml.writeEndElement();
+            element("summary", summary(row.getContentHead()));
+        }
+        xml.writeEndElement();
+    }
+
+    /** Closes the feed; the latest entry update, or null for an empty feed */
+    LocalDateTime end() throws XMLStreamException {
+        if (updated != null) {
+            if (format == Format.RSS) {
+                element("lastBuildDate", DateTimeFormatter.RFC_1123_DATE_TIME.format(zoned(updated)));
+            } else {
+                element("updated", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(zoned(updated)));
+            }
+        } else if (format == Format.ATOM) {
+            // Required in Atom; a fixed date keeps an empty feed's bytes stable
+            element("updated", "1970-01-01T00:00:00Z");
+        }
+        xml.writeEndDocument();
+        xml.flush();
+        xml.close();
+        return updated;
+    }
+
+    private void element(String name, String text) throws XMLStreamException {
+        if (format == Format.ATOM) {
+            xml.writeStartElement(ATOM_NS, name);
+        } else {
+            xml.writeStartElement(name);
+        }
+        xml.writeCharacters(text != null ? NOT_XML.matcher(text).replaceAll("") : "");
+        xml.writeEndElement();
+    }
+
+    private static ZonedDateTime zoned(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.SECONDS).atZone(ZoneId.systemDefault());
+    }
+
+    private static String summary(String contentHead) {
+        if (contentHead == null) {
+            return "";
+        }
+        return contentHead.length() > SUMMARY_LENGTH ? contentHead.substring(0, SUMMARY_LENGTH) + "..." : contentHead;
+    }
+}
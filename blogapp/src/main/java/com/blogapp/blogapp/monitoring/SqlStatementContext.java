@@ -0,0 +1,48 @@
+package com.blogapp.blogapp.monitoring;
+
+/**
+ * Thread-bound scopes that SQL statements are counted against.
+ * Scopes nest: a statement is recorded in the current scope and every enclosing one,
+ * so a test can open a scope around a MockMvc call that opens its own request scope.
+ */
+public final class SqlStatementContext {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementContext() {
+    }
+
+    /**
+     * Open a new scope on the current thread
+     */
+    public static SqlStatementStats begin() {
+        SqlStatementStats stats = new SqlStatementStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Close the given scope and restore the enclosing one
+     */
+    public static void end(SqlStatementStats stats) {
+        SqlStatementStats parent = stats.getParent();
+        if (parent != null) {
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * The innermost open scope, or null when nothing is being counted
+     */
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    static void record(String sql, long nanos) {
+        for (SqlStatementStats stats = CURRENT.get(); stats != null; stats = stats.getParent()) {
+            stats.record(sql, nanos);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.blogapp.blogapp.monitoring;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource wrapper that times every statement execution and records it in the
+ * current {@link SqlStatementContext} scope. Works below Hibernate, so it also sees
+ * lazy loads, Spring Data count queries and plain JDBC.
+ */
+public class SqlStatementCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public SqlStatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        // Keep the pool's shutdown hook working now that the bean is this wrapper
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                SqlStatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlStatementCountingDataSource.invoke(target, method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return statementProxy(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall":
+                    return statementProxy(CallableStatement.class, (Statement) result, (String) args[0]);
+                case "createStatement":
+                    return statementProxy(Statement.class, (Statement) result, null);
+                default:
+                    return result;
+            }
+        }
+
+        private static Object statementProxy(Class<?> type, Statement statement, String sql) {
+            return Proxy.newProxyInstance(
+                    SqlStatementCountingDataSource.class.getClassLoader(),
+                    new Class<?>[] {type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!EXECUTE_METHODS.contains(method.getName())) {
+                return SqlStatementCountingDataSource.invoke(target, method, args);
+            }
+
+            String sql = preparedSql;
+            if (sql == null) {
+                sql = args != null && args.length > 0 && args[0] instanceof String s ? s : "<batch>";
+            }
+
+            long start = System.nanoTime();
+            try {
+                return SqlStatementCountingDataSource.invoke(target, method, args);
+            } finally {
+                SqlStatementContext.record(sql, System.nanoTime() - start);
+            }
+        }
+    }
+}
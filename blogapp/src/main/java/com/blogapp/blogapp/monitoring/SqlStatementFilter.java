@@ -0,0 +1,149 @@
+package com.blogapp.blogapp.monitoring;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opens a SQL statement scope per HTTP request, reports it in the Server-Timing header
+ * and in metrics, and warns when one statement shape repeats often enough to be an N+1
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.sql.repeated-statement-threshold:10}")
+    private int repeatedStatementThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        SqlStatementStats stats = SqlStatementContext.begin();
+        ServerTimingResponseWrapper wrappedResponse = new ServerTimingResponseWrapper(response, stats);
+        try {
+            filterChain.doFilter(request, wrappedResponse);
+        } finally {
+            SqlStatementContext.end(stats);
+            // Bodiless responses never touch the output stream, so add the header here
+            wrappedResponse.addServerTimingHeader();
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementStats stats) {
+        String uri = uriTag(request);
+
+        DistributionSummary.builder("blogapp.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        Timer.builder("blogapp.sql.time")
+                .description("Total JDBC execution time per HTTP request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getTotalNanos(), TimeUnit.NANOSECONDS);
+
+        Map<String, Integer> repeated = stats.getRepeatedShapes(repeatedStatementThreshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("blogapp.sql.repeated.statements", "uri", uri).increment();
+            repeated.forEach((shape, count) -> log.warn(
+                    "Possible N+1: {} {} executed the same statement {} times: {}",
+                    request.getMethod(), request.getRequestURI(), count, shape));
+        }
+    }
+
+    private static String uriTag(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    /**
+     * Adds the Server-Timing header right before the body is written, while headers can still be set
+     */
+    private static final class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final SqlStatementStats stats;
+        private boolean headerAdded;
+
+        ServerTimingResponseWrapper(HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void addServerTimingHeader() {
+            if (headerAdded || isCommitted()) {
+                return;
+            }
+            headerAdded = true;
+            addHeader(SERVER_TIMING_HEADER, String.format(Locale.ROOT, "db;dur=%.2f;desc=\"%d statements\"",
+                    stats.getTotalMillis(), stats.getStatementCount()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTimingHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTimingHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
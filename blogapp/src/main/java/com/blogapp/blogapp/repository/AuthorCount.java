@@ -0,0 +1,11 @@
+package com.blogapp.blogapp.repository;
+
+/**
+ * Number of rows per author, from a grouped count query
+ */
+public interface AuthorCount {
+
+    Long getAuthorId();
+
+    Long getCount();
+}
@@ -0,0 +1,11 @@
+package com.blogapp.blogapp.repository;
+
+/**
+ * Number of rows per blog, from a grouped count query
+ */
+public interface BlogCount {
+
+    Long getBlogId();
+
+    Long getCount();
+}
@@ -1,5 +1,10 @@
 package com.blogapp.blogapp.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,55 +17,114 @@ import com.blogapp.blogapp.entity.Blog;
 import com.blogapp.blogapp.entity.User;
 
 @Repository
-public interface BlogRepository extends JpaRepository<Blog, Long> {
+public interface BlogRepository extends JpaRepository<Blog, Long>, BlogRepositoryCustom {
+    
+    /** Length of the content excerpt returned with each search hit */
+    int EXCERPT_LENGTH = 600;
     
     /**
      * Find all blogs ordered by creation date descending (newest first) with pagination
      */
-    @Query("SELECT DISTINCT b FROM Blog b LEFT JOIN FETCH b.author ORDER BY b.createdAt DESC")
+    @Query(value = "SELECT b FROM Blog b LEFT JOIN FETCH b.author ORDER BY b.createdAt DESC",
+           countQuery = "SELECT COUNT(*) FROM Blog b")
     Page<Blog> findAllOrderByCreatedAtDesc(Pageable pageable);
     
     /**
      * Find all blogs ordered by view count descending (most popular first)
      */
-    @Query("SELECT DISTINCT b FROM Blog b LEFT JOIN FETCH b.author ORDER BY b.viewCount DESC, b.createdAt DESC")
+    @Query(value = "SELECT b FROM Blog b LEFT JOIN FETCH b.author ORDER BY b.viewCount DESC, b.createdAt DESC",
+           countQuery = "SELECT COUNT(*) FROM Blog b")
     Page<Blog> findAllOrderByViewCountDesc(Pageable pageable);
     
     /**
      * Find all blogs ordered by title alphabetically
      */
-    @Query("SELECT DISTINCT b FROM Blog b LEFT JOIN FETCH b.author ORDER BY b.title ASC")
+    @Query(value = "SELECT b FROM Blog b LEFT JOIN FETCH b.author ORDER BY b.title ASC",
+           countQuery = "SELECT COUNT(*) FROM Blog b")
     Page<Blog> findAllOrderByTitleAsc(Pageable pageable);
     
     /**
      * Find all blogs by a specific author ordered by creation date descending
      */
-    @Query("SELECT DISTINCT b FROM Blog b WHERE b.author = :author ORDER BY b.createdAt DESC")
+    @Query(value = "SELECT b FROM Blog b WHERE b.author = :author ORDER BY b.createdAt DESC",
+           countQuery = "SELECT COUNT(*) FROM Blog b WHERE b.author = :author")
     Page<Blog> findByAuthorOrderByCreatedAtDesc(@Param("author") User author, Pageable pageable);
     
     /**
      * Find all blogs by author ID ordered by creation date descending
      */
-    @Query("SELECT DISTINCT b FROM Blog b LEFT JOIN FETCH b.author WHERE b.author.id = :authorId ORDER BY b.createdAt DESC")
+    @Query(value = "SELECT b FROM Blog b LEFT JOIN FETCH b.author WHERE b.author.id = :authorId ORDER BY b.createdAt DESC",
+           countQuery = "SELECT COUNT(*) FROM Blog b WHERE b.author.id = :authorId")
     Page<Blog> findByAuthorIdOrderByCreatedAtDesc(@Param("authorId") Long authorId, Pageable pageable);
     
     /**
      * Count total blogs by author
      */
-    long countByAuthor(User author);
+    @Query("SELECT COUNT(*) FROM Blog b WHERE b.author = :author")
+    long countByAuthor(@Param("author") User author);
     
     /**
      * Count total blogs by author ID
      */
-    long countByAuthorId(Long authorId);
+    @Query("SELECT COUNT(*) FROM Blog b WHERE b.author.id = :authorId")
+    long countByAuthorId(@Param("authorId") Long authorId);
+    
+    /**
+     * Count blogs of several authors at once; authors without blogs are left out
+     */
+    @Query("SELECT b.author.id AS authorId, COUNT(*) AS count FROM Blog b WHERE b.author.id IN :authorIds GROUP BY b.author.id")
+    List<AuthorCount> countByAuthorIds(@Param("authorIds") Collection<Long> authorIds);
+    
+    /**
+     * Count the comments of several blogs at once, for blogs whose comment count is not known
+     * yet; blogs without comments are left out
+     */
+    @Query("SELECT c.blog.id AS blogId, COUNT(*) AS count FROM Comment c WHERE c.blog.id IN :blogIds GROUP BY c.blog.id")
+    List<BlogCount> countCommentsByBlogIds(@Param("blogIds") Collection<Long> blogIds);
     
     // Tag-related queries removed
     
     /**
      * Search blogs by title or content
+     * Only an excerpt from 100 characters before the first match leaves the database, not the whole content
+     */
+    @Query(value = "SELECT b.id AS id, b.title AS title, b.viewCount AS viewCount, "
+                 + "a.id AS authorId, a.email AS authorEmail, a.firstName AS authorFirstName, a.lastName AS authorLastName, "
+                 + "b.commentCount AS commentCount, b.createdAt AS createdAt, b.updatedAt AS updatedAt, SUBSTRING(b.content, 1, 201) AS contentHead, "
+                 + "SUBSTRING(b.content, GREATEST(LOCATE(LOWER(:searchTerm), LOWER(b.content)) - 100, 1), " + EXCERPT_LENGTH + ") AS excerpt, "
+                 + "GREATEST(LOCATE(LOWER(:searchTerm), LOWER(b.content)) - 100, 1) AS excerptStart "
+                 + "FROM Blog b JOIN b.author a "
+                 + "WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(b.content) LIKE LOWER(CONCAT('%', :searchTerm, '%'))",
+           countQuery = "SELECT COUNT(*) FROM Blog b "
+                 + "WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(b.content) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    Page<BlogSearchHit> searchByTitleOrContent(@Param("searchTerm") String searchTerm, Pageable pageable);
+    
+    /**
+     * Summary columns of blogs by ids, in no particular order, without loading the content
+     */
+    @Query("SELECT b.id AS id, b.title AS title, b.viewCount AS viewCount, "
+         + "a.id AS authorId, a.email AS authorEmail, a.firstName AS authorFirstName, a.lastName AS authorLastName, "
+         + "b.commentCount AS commentCount, b.createdAt AS createdAt, b.updatedAt AS updatedAt, SUBSTRING(b.content, 1, 201) AS contentHead "
+         + "FROM Blog b JOIN b.author a WHERE b.id IN :ids")
+    List<BlogSummaryRow> findSummaryRowsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Summary columns of the newest blogs, streamed, for the syndication feeds
      */
-    @Query("SELECT DISTINCT b FROM Blog b LEFT JOIN FETCH b.author WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(b.content) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Blog> searchByTitleOrContent(@Param("searchTerm") String searchTerm, Pageable pageable);
+    @Query("SELECT b.id AS id, b.title AS title, b.viewCount AS viewCount, "
+         + "a.id AS authorId, a.email AS authorEmail, a.firstName AS authorFirstName, a.lastName AS authorLastName, "
+         + "b.commentCount AS commentCount, b.createdAt AS createdAt, b.updatedAt AS updatedAt, SUBSTRING(b.content, 1, 201) AS contentHead "
+         + "FROM Blog b JOIN b.author a ORDER BY b.createdAt DESC")
+    Stream<BlogSummaryRow> streamLatestSummaryRows(Limit limit);
+    
+    /**
+     * Summary columns of an author's newest blogs, streamed, for the syndication feeds
+     */
+    @Query("SELECT b.id AS id, b.title AS title, b.viewCount AS viewCount, "
+         + "a.id AS authorId, a.email AS authorEmail, a.firstName AS authorFirstName, a.lastName AS authorLastName, "
+         + "b.commentCount AS commentCount, b.createdAt AS createdAt, b.updatedAt AS updatedAt, SUBSTRING(b.content, 1, 201) AS contentHead "
+         + "FROM Blog b JOIN b.author a WHERE a.id = :authorId ORDER BY b.createdAt DESC")
+    Stream<BlogSummaryRow> streamLatestSummaryRowsByAuthorId(@Param("authorId") Long authorId, Limit limit);
     
     /**
      * Find blog by ID with author eagerly loaded
@@ -68,10 +132,32 @@ public interface BlogRepository extends JpaRepository<Blog, Long> {
     @Query("SELECT b FROM Blog b LEFT JOIN FETCH b.author WHERE b.id = :id")
     java.util.Optional<Blog> findByIdWithAuthor(@Param("id") Long id);
     
+    /**
+     * Update times of a blog and its author, for conditional requests; the content is not read
+     */
+    @Query(value = "SELECT b.updated_at AS updatedAt, a.updated_at AS authorUpdatedAt, b.view_count AS viewCount, "
+            + "b.comment_count AS commentCount, last.changed_at AS commentsChangedAt FROM blogs b "
+            + "JOIN users a ON a.id = b.author_id LEFT JOIN LATERAL (SELECT l.changed_at FROM change_log l "
+            + "WHERE l.blog_id = b.id ORDER BY l.seq DESC LIMIT 1) last ON TRUE WHERE b.id = :id", nativeQuery = true)
+    java.util.Optional<BlogVersionRow> findVersionById(@Param("id") Long id);
+    
+    /**
+     * Find blogs by ids with author eagerly loaded, in no particular order
+     */
+    @Query("SELECT b FROM Blog b LEFT JOIN FETCH b.author WHERE b.id IN :ids")
+    List<Blog> findAllByIdWithAuthor(@Param("ids") Collection<Long> ids);
+    
     /**
      * Increment view count for a blog
      */
     @Modifying
     @Query("UPDATE Blog b SET b.viewCount = b.viewCount + 1 WHERE b.id = :blogId")
-    void incrementViewCount(@Param("blogId") Long blogId);
+    int incrementViewCount(@Param("blogId") Long blogId);
+    
+    /**
+     * Add to the comment count of a blog, in the transaction that writes the comments
+     */
+    @Modifying
+    @Query("UPDATE Blog b SET b.commentCount = b.commentCount + :delta WHERE b.id = :blogId")
+    int addToCommentCount(@Param("blogId") Long blogId, @Param("delta") long delta);
 }
\ No newline at end of file
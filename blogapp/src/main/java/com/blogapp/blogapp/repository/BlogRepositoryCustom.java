@@ -0,0 +1,19 @@
+package com.blogapp.blogapp.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.blogapp.blogapp.dto.BlogSummaryResponse;
+import com.blogapp.blogapp.util.FieldSelection;
+
+/**
+ * Blog queries built at runtime, implemented in {@link BlogRepositoryCustomImpl}
+ */
+public interface BlogRepositoryCustom {
+
+    /**
+     * A page of blog summaries reading only the columns behind the selected fields, ordered
+     * like the feed (date, popularity or title). The id is always read.
+     */
+    Page<BlogSummaryResponse> findSummaries(String sortBy, FieldSelection fields, Pageable pageable);
+}
@@ -0,0 +1,121 @@
+package com.blogapp.blogapp.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.blogapp.blogapp.dto.BlogMapper;
+import com.blogapp.blogapp.dto.BlogSummaryResponse;
+import com.blogapp.blogapp.entity.Blog;
+import com.blogapp.blogapp.entity.User;
+import com.blogapp.blogapp.util.FieldSelection;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+public class BlogRepositoryCustomImpl implements BlogRepositoryCustom {
+
+    private static final List<String> BLOG_FIELDS = List.of("title", "viewCount", "commentCount", "createdAt", "updatedAt");
+    private static final List<String> AUTHOR_FIELDS = List.of("id", "email", "firstName", "lastName");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<BlogSummaryResponse> findSummaries(String sortBy, FieldSelection fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Blog> blog = query.from(Blog.class);
+
+        List<Selection<?>> columns = new ArrayList<>();
+        columns.add(blog.get("id").alias("id"));
+        for (String field : BLOG_FIELDS) {
+            if (fields.includes(field)) {
+                columns.add(blog.get(field).alias(field));
+            }
+        }
+        if (fields.includes("contentPreview")) {
+            // The full content stays in the database, often out of line in TOAST
+            columns.add(cb.substring(blog.get("content"), 1, 201).alias("contentHead"));
+        }
+        if (fields.includes("author")) {
+            Join<Blog, User> author = blog.join("author");
+            for (String field : AUTHOR_FIELDS) {
+                if (fields.includes("author." + field)) {
+                    columns.add(author.get(field).alias("author_" + field));
+                }
+            }
+        }
+        query.multiselect(columns).orderBy(feedOrder(cb, blog, sortBy));
+
+        List<BlogSummaryResponse> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList().stream()
+                .map(row -> toSummary(row, fields))
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> entityManager.createQuery("SELECT COUNT(*) FROM Blog b", Long.class).getSingleResult());
+    }
+
+    private static List<Order> feedOrder(CriteriaBuilder cb, Root<Blog> blog, String sortBy) {
+        Path<?> createdAt = blog.get("createdAt");
+        switch (sortBy != null ? sortBy.toLowerCase() : "date") {
+            case "popularity":
+                return List.of(cb.desc(blog.get("viewCount")), cb.desc(createdAt));
+            case "title":
+                return List.of(cb.asc(blog.get("title")));
+            case "date":
+            default:
+                return List.of(cb.desc(createdAt));
+        }
+    }
+
+    private static BlogSummaryResponse toSummary(Tuple row, FieldSelection fields) {
+        BlogSummaryResponse summary = new BlogSummaryResponse();
+        BlogSummaryResponse.AuthorInfo author = null;
+        for (TupleElement<?> element : row.getElements()) {
+            Object value = row.get(element);
+            switch (element.getAlias()) {
+                case "id" -> summary.setId((Long) value);
+                case "title" -> summary.setTitle((String) value);
+                case "viewCount" -> summary.setViewCount((Long) value);
+                case "commentCount" -> summary.setCommentCount((Long) value);
+                case "createdAt" -> summary.setCreatedAt((LocalDateTime) value);
+                case "updatedAt" -> summary.setUpdatedAt((LocalDateTime) value);
+                case "contentHead" -> summary.setContentPreview(BlogMapper.contentPreview((String) value));
+                default -> {
+                    if (author == null) {
+                        author = new BlogSummaryResponse.AuthorInfo();
+                    }
+                    switch (element.getAlias()) {
+                        case "author_id" -> author.setId((Long) value);
+                        case "author_email" -> author.setEmail((String) value);
+                        case "author_firstName" -> author.setFirstName((String) value);
+                        case "author_lastName" -> author.setLastName((String) value);
+                        default -> throw new IllegalStateException("Unexpected column " + element.getAlias());
+                    }
+                }
+            }
+        }
+        summary.setAuthor(author);
+        if (fields.includes("tags")) {
+            summary.setTags(Collections.emptyList()); // No tags
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,14 @@
+package com.blogapp.blogapp.repository;
+
+/**
+ * A search result without the full content: the head of the post for the preview, and an
+ * excerpt of the content around the first match for the snippet.
+ */
+public interface BlogSearchHit extends BlogSummaryRow {
+
+    /** Up to {@link BlogRepository#EXCERPT_LENGTH} characters starting shortly before the first match in the content */
+    String getExcerpt();
+
+    /** 1-based position of the excerpt in the content */
+    Integer getExcerptStart();
+}
@@ -0,0 +1,33 @@
+package com.blogapp.blogapp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a blog summary, with only the head of the content
+ */
+public interface BlogSummaryRow {
+
+    Long getId();
+
+    String getTitle();
+
+    Long getViewCount();
+
+    /** Null until the blog's comments are first counted */
+    Long getCommentCount();
+
+    Long getAuthorId();
+
+    String getAuthorEmail();
+
+    String getAuthorFirstName();
+
+    String getAuthorLastName();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    /** First 201 characters, enough to tell whether the preview is cut */
+    String getContentHead();
+}
@@ -0,0 +1,21 @@
+package com.blogapp.blogapp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a blog response depends on, read without its content
+ */
+public interface BlogVersionRow {
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getAuthorUpdatedAt();
+
+    Long getViewCount();
+
+    /** Null until counted, as on the blog */
+    Long getCommentCount();
+
+    /** When the blog's latest comment change was recorded, which every change of the count advances */
+    LocalDateTime getCommentsChangedAt();
+}
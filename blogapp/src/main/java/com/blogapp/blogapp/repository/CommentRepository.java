@@ -1,24 +1,135 @@
 package com.blogapp.blogapp.repository;
 
 import com.blogapp.blogapp.entity.Comment;
+import com.blogapp.blogapp.util.CommentPath;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     
-    Page<Comment> findByBlogIdOrderByCreatedAtDesc(Long blogId, Pageable pageable);
+    /**
+     * A page of top-level comments, newest first, each followed by up to repliesPerThread + 1 rows
+     * of its thread in reading order, the comment itself first: one range of idx_comments_blog_path
+     * per top-level comment. A top-level comment not backfilled yet is outside every range, so it
+     * is read by id instead; it has no replies, as a reply gives its parent a path
+     */
+    String THREADS_SQL = "SELECT c.id AS id, c.content AS content, c.blog_id AS blogId, c.author_id AS authorId, "
+            + "a.first_name AS authorFirstName, a.last_name AS authorLastName, c.parent_id AS parentId, "
+            + "COALESCE(c.path, top.path) AS path, c.reply_count AS replyCount, c.is_edited AS isEdited, "
+            + "c.created_at AS createdAt, c.updated_at AS updatedAt "
+            + "FROM (SELECT t.id, COALESCE(t.path, " + CommentPath.TOP_LEVEL_SQL + ") AS path FROM comments t "
+            + "WHERE t.blog_id = :blogId AND t.parent_id IS NULL ORDER BY t.id DESC LIMIT :size OFFSET :offset) top "
+            + "CROSS JOIN LATERAL ((SELECT * FROM comments r WHERE r.blog_id = :blogId "
+            + "AND r.path >= top.path AND r.path < top.path || '~' ORDER BY r.path LIMIT :rowsPerThread) "
+            + "UNION ALL (SELECT * FROM comments r WHERE r.id = top.id AND r.path IS NULL)) c "
+            + "JOIN users a ON a.id = c.author_id "
+            + "ORDER BY top.id DESC, COALESCE(c.path, top.path)";
     
-    List<Comment> findByAuthorIdOrderByCreatedAtDesc(Long authorId);
+    @Query(value = "SELECT c FROM Comment c JOIN FETCH c.author WHERE c.blog.id = :blogId ORDER BY c.createdAt DESC",
+           countQuery = "SELECT COUNT(*) FROM Comment c WHERE c.blog.id = :blogId")
+    Page<Comment> findByBlogIdOrderByCreatedAtDesc(@Param("blogId") Long blogId, Pageable pageable);
     
-    long countByBlogId(Long blogId);
+    /**
+     * Keyset pages of a blog's comments, newest first: the first page, then the comments before a cursor
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.blog.id = :blogId ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findLatestByBlogId(@Param("blogId") Long blogId, Limit limit);
     
-    @Query("SELECT c FROM Comment c WHERE c.blog.id = :blogId ORDER BY c.createdAt ASC")
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.blog.id = :blogId "
+            + "AND (c.createdAt, c.id) < (:createdAt, :id) ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findLatestByBlogIdBefore(@Param("blogId") Long blogId, @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id, Limit limit);
+    
+    /**
+     * Keyset pages of a user's comments, newest first
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.author.id = :authorId ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findLatestByAuthorId(@Param("authorId") Long authorId, Limit limit);
+    
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.author.id = :authorId "
+            + "AND (c.createdAt, c.id) < (:createdAt, :id) ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findLatestByAuthorIdBefore(@Param("authorId") Long authorId, @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id, Limit limit);
+    
+    @Query("SELECT COUNT(*) FROM Comment c WHERE c.blog.id = :blogId")
+    long countByBlogId(@Param("blogId") Long blogId);
+    
+    @Query(value = "SELECT c FROM Comment c WHERE c.blog.id = :blogId ORDER BY c.createdAt ASC",
+           countQuery = "SELECT COUNT(*) FROM Comment c WHERE c.blog.id = :blogId")
     Page<Comment> findByBlogIdOrderByCreatedAtAsc(@Param("blogId") Long blogId, Pageable pageable);
+    
+    @Query(value = THREADS_SQL, nativeQuery = true)
+    List<CommentThreadRow> findThreadsByBlogId(@Param("blogId") Long blogId, @Param("offset") long offset,
+                                               @Param("size") int size, @Param("rowsPerThread") int rowsPerThread);
+    
+    @Query("SELECT COUNT(*) FROM Comment c WHERE c.blog.id = :blogId AND c.parentId IS NULL")
+    long countTopLevelByBlogId(@Param("blogId") Long blogId);
+    
+    /**
+     * A comment and its replies at every depth in reading order, from the range of paths starting with its own
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.blog.id = :blogId AND c.path >= :path "
+            + "AND c.path < :pathEnd ORDER BY c.path")
+    List<Comment> findSubtree(@Param("blogId") Long blogId, @Param("path") String path,
+                              @Param("pathEnd") String pathEnd, Limit limit);
+    
+    @Query("SELECT c.id FROM Comment c WHERE c.blog.id = :blogId AND c.path >= :path AND c.path < :pathEnd")
+    List<Long> findSubtreeIds(@Param("blogId") Long blogId, @Param("path") String path, @Param("pathEnd") String pathEnd);
+    
+    @Modifying
+    @Query("UPDATE Comment c SET c.replyCount = c.replyCount + :delta WHERE c.id IN :ids")
+    int addToReplyCounts(@Param("ids") Collection<Long> ids, @Param("delta") int delta);
+    
+    /**
+     * Moves the replies below a deleted comment up one level: their paths lose its segment and
+     * its direct replies get its parent, null at the top level
+     */
+    @Modifying
+    @Query(value = "UPDATE comments SET path = :parentPath || substr(path, length(:path) + 1), "
+            + "parent_id = CASE WHEN parent_id = :id THEN CAST(:parentId AS BIGINT) ELSE parent_id END, "
+            + "updated_at = LOCALTIMESTAMP WHERE blog_id = :blogId AND path > :path AND path < :pathEnd", nativeQuery = true)
+    int moveReplies(@Param("blogId") Long blogId, @Param("path") String path, @Param("pathEnd") String pathEnd,
+                    @Param("parentPath") String parentPath, @Param("id") Long id, @Param("parentId") Long parentId);
+    
+    /**
+     * Gives the top-level comments with ids in (after, last] written without a path, e.g.
+     * bulk-loaded ones, their path; a primary key range, however few of them lack one
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE comments SET path = " + CommentPath.TOP_LEVEL_SQL + " WHERE id > :after AND id <= :last "
+            + "AND path IS NULL AND parent_id IS NULL", nativeQuery = true)
+    int backfillTopLevelPaths(@Param("after") long after, @Param("last") long last);
+    
+    @Query("SELECT MAX(c.id) FROM Comment c")
+    Optional<Long> findMaxId();
+    
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.id IN :ids")
+    List<Comment> findAllByIdWithAuthor(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT c.author.id AS authorId, COUNT(*) AS count FROM Comment c WHERE c.author.id IN :authorIds GROUP BY c.author.id")
+    List<AuthorCount> countByAuthorIds(@Param("authorIds") Collection<Long> authorIds);
+    
+    /**
+     * One row of blogs and one entry of idx_change_log_blog_seq and of idx_users_updated_at, however
+     * many comments the blog has; empty for an unknown blog
+     */
+    @Query(value = "SELECT b.comment_count AS commentCount, last.seq AS changeSeq, last.changed_at AS changedAt, "
+            + "(SELECT MAX(u.updated_at) FROM users u) AS usersUpdatedAt FROM blogs b "
+            + "LEFT JOIN LATERAL (SELECT l.seq, l.changed_at FROM change_log l WHERE l.blog_id = b.id "
+            + "ORDER BY l.seq DESC LIMIT 1) last ON TRUE WHERE b.id = :blogId", nativeQuery = true)
+    Optional<CommentsVersionRow> findVersionByBlogId(@Param("blogId") Long blogId);
 }
\ No newline at end of file
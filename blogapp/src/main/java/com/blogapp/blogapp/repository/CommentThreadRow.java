@@ -0,0 +1,33 @@
+package com.blogapp.blogapp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * A comment of a thread page, with its author's name
+ */
+public interface CommentThreadRow {
+
+    Long getId();
+
+    String getContent();
+
+    Long getBlogId();
+
+    Long getAuthorId();
+
+    String getAuthorFirstName();
+
+    String getAuthorLastName();
+
+    Long getParentId();
+
+    String getPath();
+
+    Integer getReplyCount();
+
+    Boolean getIsEdited();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,20 @@
+package com.blogapp.blogapp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * What the comment lists of a blog depend on, all kept up to date by the writes themselves:
+ * the blog's comment count, its latest comment change in the change log, which every comment
+ * written, edited, moved or deleted advances, and the latest change to any user, as comments
+ * show their author's name
+ */
+public interface CommentsVersionRow {
+
+    Long getCommentCount();
+
+    Long getChangeSeq();
+
+    LocalDateTime getChangedAt();
+
+    LocalDateTime getUsersUpdatedAt();
+}
@@ -2,6 +2,9 @@ package com.blogapp.blogapp.repository;
 
 import com.blogapp.blogapp.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +13,24 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    @Query("SELECT u.id AS id, u.updatedAt AS updatedAt, u.blogCount AS blogCount, u.commentCount AS commentCount "
+            + "FROM User u WHERE u.id = :id")
+    Optional<UserVersionRow> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT u.id AS id, u.updatedAt AS updatedAt, u.blogCount AS blogCount, u.commentCount AS commentCount "
+            + "FROM User u WHERE u.email = :email")
+    Optional<UserVersionRow> findVersionByEmail(@Param("email") String email);
+    
+    /**
+     * Atomic changes of the counts kept on the user row; a count still null stays null until
+     * UserCountReconciler sets it
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.blogCount = u.blogCount + :delta WHERE u.id = :userId")
+    int addToBlogCount(@Param("userId") Long userId, @Param("delta") long delta);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.commentCount = u.commentCount + :delta WHERE u.id = :userId")
+    int addToCommentCount(@Param("userId") Long userId, @Param("delta") long delta);
 }
\ No newline at end of file
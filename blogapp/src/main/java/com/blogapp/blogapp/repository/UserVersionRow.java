@@ -0,0 +1,17 @@
+package com.blogapp.blogapp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a profile response depends on: the user row, which also keeps the counts shown with it
+ */
+public interface UserVersionRow {
+
+    Long getId();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getBlogCount();
+
+    Long getCommentCount();
+}
@@ -0,0 +1,175 @@
+package com.blogapp.blogapp.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Locality-sensitive hashing over {@link MinHash} signatures. A signature is cut into
+ * BANDS bands of ROWS values, and posts that share a whole band are candidates. With 16
+ * bands of 4, a pair at similarity 0.8 is almost surely found, 0.5 about 64% of the time
+ * and 0.3 only 12%, so lookups touch a handful of posts instead of all of them.
+ *
+ * <p>Buckets are addressed by the band hash without storing it: unrelated posts that
+ * collide merely add candidates, and every candidate is checked against its full signature.
+ * Bucket chains run through one int array, so a post costs its signature plus an int per
+ * band. Not thread-safe; {@link RelatedPostsService} guards it with a read-write lock.
+ */
+class LshIndex {
+
+    static final int BANDS = 16;
+    static final int ROWS = MinHash.SIZE / BANDS;
+
+    private static final int NONE = -1;
+
+    /** Bounds a lookup when many posts share a band, e.g. templated or empty content */
+    private static final int MAX_CANDIDATES = 2_000;
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long[] ids = new long[16];
+    private String[] titles = new String[16];
+    private int[] signatures = new int[16 * MinHash.SIZE];
+    private int[] next = new int[16 * BANDS];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int highWater;
+
+    private int tableSize = 1024;
+    private int[] heads = newHeads(tableSize);
+
+    record Match(long id, String title, double similarity) {
+    }
+
+    void put(long id, String title, int[] signature) {
+        remove(id);
+        int slot = allocateSlot();
+        slots.put(id, slot);
+        ids[slot] = id;
+        titles[slot] = title;
+        System.arraycopy(signature, 0, signatures, slot * MinHash.SIZE, MinHash.SIZE);
+        if (slots.size() > tableSize / 2) {
+            resizeTable(tableSize * 2);
+        } else {
+            link(slot);
+        }
+    }
+
+    void remove(long id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            int entry = slot * BANDS + band;
+            int head = band * tableSize + bucket(slot, band);
+            if (heads[head] == entry) {
+                heads[head] = next[entry];
+                continue;
+            }
+            for (int previous = heads[head]; previous != NONE; previous = next[previous]) {
+                if (next[previous] == entry) {
+                    next[previous] = next[entry];
+                    break;
+                }
+            }
+        }
+        titles[slot] = null;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /** The most similar indexed posts at or above the threshold, best first */
+    List<Match> similar(long id, int limit, double minSimilarity) {
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            return List.of();
+        }
+        Set<Integer> seen = new HashSet<>();
+        List<Match> matches = new ArrayList<>();
+        for (int band = 0; band < BANDS && seen.size() < MAX_CANDIDATES; band++) {
+            for (int entry = heads[band * tableSize + bucket(slot, band)];
+                    entry != NONE && seen.size() < MAX_CANDIDATES; entry = next[entry]) {
+                int candidate = entry / BANDS;
+                if (candidate == slot || !seen.add(candidate)) {
+                    continue;
+                }
+                double similarity = similarity(slot, candidate);
+                if (similarity >= minSimilarity) {
+                    matches.add(new Match(ids[candidate], titles[candidate], similarity));
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::similarity).reversed().thenComparingLong(Match::id));
+        return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+    }
+
+    boolean contains(long id) {
+        return slots.containsKey(id);
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            signatures = Arrays.copyOf(signatures, capacity * MinHash.SIZE);
+            next = Arrays.copyOf(next, capacity * BANDS);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+        }
+        return highWater++;
+    }
+
+    private void link(int slot) {
+        for (int band = 0; band < BANDS; band++) {
+            int entry = slot * BANDS + band;
+            int head = band * tableSize + bucket(slot, band);
+            next[entry] = heads[head];
+            heads[head] = entry;
+        }
+    }
+
+    private void resizeTable(int size) {
+        tableSize = size;
+        heads = newHeads(size);
+        slots.values().forEach(this::link);
+    }
+
+    private int bucket(int slot, int band) {
+        int offset = slot * MinHash.SIZE + band * ROWS;
+        int hash = band;
+        for (int row = 0; row < ROWS; row++) {
+            hash = hash * 0x9E3779B1 + signatures[offset + row];
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash & (tableSize - 1);
+    }
+
+    private double similarity(int slot, int other) {
+        int equal = 0;
+        for (int i = 0, a = slot * MinHash.SIZE, b = other * MinHash.SIZE; i < MinHash.SIZE; i++) {
+            if (signatures[a + i] == signatures[b + i]) {
+                equal++;
+            }
+        }
+        return (double) equal / MinHash.SIZE;
+    }
+
+    private static int[] newHeads(int size) {
+        int[] newHeads = new int[BANDS * size];
+        Arrays.fill(newHeads, NONE);
+        return newHeads;
+    }
+}
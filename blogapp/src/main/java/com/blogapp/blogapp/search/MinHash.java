@@ -0,0 +1,82 @@
+package com.blogapp.blogapp.search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import com.blogapp.blogapp.util.HyperLogLog;
+
+/**
+ * MinHash signatures over word 3-shingles. The share of equal positions in two signatures
+ * estimates the Jaccard similarity of the two shingle sets, with a standard error of about
+ * 1 / sqrt(SIZE), i.e. 0.06 for 64 hashes.
+ */
+final class MinHash {
+
+    static final int SIZE = 64;
+
+    private static final int SHINGLE_WORDS = 3;
+
+    /** Coefficients of the SIZE hash functions a * x + b, fixed so signatures stay comparable across restarts */
+    private static final long[] MULTIPLIERS = new long[SIZE];
+    private static final long[] INCREMENTS = new long[SIZE];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5eed_0f_b10cL);
+        for (int i = 0; i < SIZE; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            INCREMENTS[i] = random.nextLong();
+        }
+    }
+
+    private MinHash() {
+    }
+
+    static int[] signature(String content) {
+        String[] words = SearchText.normalize(content).split(" ");
+        long[] wordHashes = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            wordHashes[i] = HyperLogLog.hash(words[i]);
+        }
+
+        int[] signature = new int[SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        int shingles = Math.max(1, words.length - SHINGLE_WORDS + 1);
+        for (int i = 0; i < shingles; i++) {
+            long shingle = wordHashes[i];
+            for (int j = 1; j < SHINGLE_WORDS && i + j < words.length; j++) {
+                shingle ^= Long.rotateLeft(wordHashes[i + j], 21 * j);
+            }
+            for (int k = 0; k < SIZE; k++) {
+                // High bits of a multiply-add are a good enough universal hash here
+                int value = (int) ((MULTIPLIERS[k] * shingle + INCREMENTS[k]) >>> 33);
+                if (value < signature[k]) {
+                    signature[k] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIZE;
+    }
+
+    static byte[] toBytes(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    static int[] fromBytes(byte[] bytes) {
+        int[] signature = new int[SIZE];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+}
@@ -0,0 +1,195 @@
+package com.blogapp.blogapp.search;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.blogapp.cache.CacheInvalidationBus;
+import com.blogapp.blogapp.cache.CacheInvalidationListener;
+import com.blogapp.blogapp.cache.CacheKeys;
+import com.blogapp.blogapp.dto.RelatedPostResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Related posts by content similarity, answered from an in-memory {@link LshIndex}.
+ *
+ * <p>BlogService stores a MinHash signature in {@code blog_signatures} whenever a post is
+ * created or edited, within the same transaction, and every node picks it up through the
+ * invalidation of that blog. On startup the index is loaded from the stored signatures, and
+ * posts that have none (e.g. bulk-loaded ones) are backfilled in batches.
+ */
+@Slf4j
+@Service
+public class RelatedPostsService implements CacheInvalidationListener {
+
+    private static final String UPSERT_SQL = "INSERT INTO blog_signatures (blog_id, signature) VALUES (?, ?) "
+            + "ON CONFLICT (blog_id) DO UPDATE SET signature = EXCLUDED.signature";
+    private static final String LOAD_SQL = "SELECT s.blog_id, b.title, s.signature FROM blog_signatures s "
+            + "JOIN blogs b ON b.id = s.blog_id";
+    private static final String RELOAD_SQL = LOAD_SQL + " WHERE s.blog_id = ANY (?)";
+    private static final String MISSING_SQL = "SELECT b.id, b.title, b.content FROM blogs b "
+            + "LEFT JOIN blog_signatures s ON s.blog_id = b.id WHERE s.blog_id IS NULL ORDER BY b.id LIMIT ?";
+
+    private static final int MAX_LIMIT = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Blogs changed while the index was loading, applied again once it is in place */
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.related.min-similarity:0.2}")
+    private double minSimilarity;
+
+    @Value("${app.related.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    private LshIndex index = new LshIndex();
+    private volatile boolean loading;
+    private boolean loaded;
+
+    public RelatedPostsService(JdbcTemplate jdbcTemplate, CacheInvalidationBus cacheInvalidationBus, DataSource dataSource,
+                               PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(1_000);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Stores the signature of new or edited content. Meant to run inside the transaction
+     * that saves the blog, so the index never sees content the database does not have.
+     */
+    public void updateSignature(Long blogId, String content) {
+        jdbcTemplate.update(UPSERT_SQL, blogId, MinHash.toBytes(MinHash.signature(content)));
+    }
+
+    public List<RelatedPostResponse> findRelated(Long blogId, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.similar(blogId, Math.max(1, Math.min(limit, MAX_LIMIT)), minSimilarity).stream()
+                    .map(match -> new RelatedPostResponse(match.id(), match.title(), match.similarity()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.related.backfill-interval:60000}")
+    public void refresh() {
+        if (!loaded) {
+            load();
+        }
+        if (loaded) {
+            backfill();
+        }
+    }
+
+    @Override
+    public void invalidate(Set<String> keys) {
+        List<Long> blogIds = keys.stream()
+                .filter(key -> CacheKeys.BLOG.equals(CacheKeys.typeOf(key))
+                        || CacheKeys.BLOG_SIGNATURE.equals(CacheKeys.typeOf(key)))
+                .map(CacheKeys::idOf)
+                .filter(id -> id != null)
+                .toList();
+        if (loading) {
+            changedDuringLoad.addAll(blogIds);
+        }
+        reload(blogIds);
+    }
+
+    @Override
+    public void invalidateAll() {
+        load();
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        loading = true;
+        changedDuringLoad.clear();
+        LshIndex fresh = new LshIndex();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(LOAD_SQL,
+                    (RowCallbackHandler) row -> fresh.put(row.getLong("blog_id"), row.getString("title"),
+                            MinHash.fromBytes(row.getBytes("signature")))));
+        } catch (RuntimeException e) {
+            loading = false;
+            log.warn("Could not load the related posts index: {}", e.getMessage());
+            return;
+        }
+
+        List<Long> changed;
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+            loaded = true;
+            loading = false;
+            changed = List.copyOf(changedDuringLoad);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reload(changed);
+        log.info("Related posts index loaded with {} signatures in {} ms", fresh.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Signs posts that have no signature yet, one batch per transaction, until none are left.
+     * Every node picks the new signatures up through the bus, this one included.
+     */
+    private void backfill() {
+        int signed = 0;
+        List<Long> batch;
+        do {
+            batch = writeTransaction.execute(status -> {
+                List<Long> ids = jdbcTemplate.query(MISSING_SQL, (row, rowNum) -> {
+                    updateSignature(row.getLong("id"), row.getString("content"));
+                    return row.getLong("id");
+                }, backfillBatchSize);
+                if (!ids.isEmpty()) {
+                    cacheInvalidationBus.publish(ids.stream().map(CacheKeys::blogSignature).toArray(String[]::new));
+                }
+                return ids;
+            });
+            signed += batch.size();
+        } while (batch.size() == backfillBatchSize);
+        if (signed > 0) {
+            log.info("Backfilled {} post signatures", signed);
+        }
+    }
+
+    private void reload(List<Long> blogIds) {
+        if (blogIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = jdbcTemplate.query(RELOAD_SQL,
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("bigint", blogIds.toArray())),
+                (row, rowNum) -> new Object[] {row.getLong("blog_id"), row.getString("title"),
+                        MinHash.fromBytes(row.getBytes("signature"))});
+        lock.writeLock().lock();
+        try {
+            blogIds.forEach(index::remove);
+            rows.forEach(row -> index.put((Long) row[0], (String) row[1], (int[]) row[2]));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
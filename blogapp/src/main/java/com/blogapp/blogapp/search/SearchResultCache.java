@@ -0,0 +1,107 @@
+package com.blogapp.blogapp.search;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.blogapp.blogapp.cache.CacheInvalidationListener;
+import com.blogapp.blogapp.cache.CacheKeys;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded LRU cache of search result pages. An entry holds only the ids, snippets and total
+ * of one page; BlogService hydrates the summaries by id, so view counts and author names
+ * stay current without invalidating anything.
+ *
+ * <p>A created, edited or deleted post can shift every page of any query it matches, before
+ * or after the change, so any blog change starts a new generation and drops all entries.
+ * Results computed while the generation moved on are never stored.
+ */
+@Component
+public class SearchResultCache implements CacheInvalidationListener {
+
+    private final int maxEntries;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Key, Result> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public record Key(String query, int page, int size) {
+    }
+
+    /** One page of results: blog ids in result order with their snippets (null for title-only matches) */
+    public record Result(List<Long> ids, List<String> snippets, long total) {
+    }
+
+    public SearchResultCache(@Value("${app.search.cache.max-entries:1000}") int maxEntries, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+                return size() > SearchResultCache.this.maxEntries;
+            }
+        };
+        this.hits = meterRegistry.counter("blogapp.search.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("blogapp.search.cache.requests", "result", "miss");
+    }
+
+    /** Case-folded with whitespace collapsed; the search runs with this form, so equal keys mean equal results */
+    public static String normalizeQuery(String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /** To be read before running a search, and passed to {@link #put} with its result */
+    public long generation() {
+        return generation.get();
+    }
+
+    public Result get(Key key) {
+        Result result;
+        synchronized (entries) {
+            result = entries.get(key);
+        }
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    public void put(Key key, long searchedAtGeneration, Result result) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            // A change committed while the search ran may not be in its result
+            if (searchedAtGeneration == generation.get()) {
+                entries.put(key, result);
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void invalidate(Set<String> keys) {
+        if (keys.stream().anyMatch(key -> CacheKeys.BLOG.equals(CacheKeys.typeOf(key)))) {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+}
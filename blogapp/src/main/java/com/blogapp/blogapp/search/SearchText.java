@@ -0,0 +1,33 @@
+package com.blogapp.blogapp.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Text normalization shared by the in-memory search structures
+ */
+final class SearchText {
+
+    private SearchText() {
+    }
+
+    /** Lowercase letters and digits, accents stripped, words separated by single spaces */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                space = false;
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                space = true;
+            }
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.blogapp.blogapp.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the snippet of a search result: a few fragments of text around occurrences of the
+ * search term, each occurrence wrapped in {@code <mark>}. Everything else is HTML-escaped,
+ * so the snippet can be rendered as markup.
+ *
+ * <p>Works on the excerpt returned by the search query rather than the whole post, and stops
+ * scanning once it has enough fragments, so a 100 KB post costs as little as a short one.
+ */
+public final class SnippetHighlighter {
+
+    static final int MAX_FRAGMENTS = 3;
+
+    /** Characters of context kept on each side of a match */
+    static final int CONTEXT = 60;
+
+    private static final String ELLIPSIS = "…";
+
+    private SnippetHighlighter() {
+    }
+
+    /**
+     * Returns the highlighted snippet, or null when the term does not occur in the excerpt,
+     * e.g. because only the title matched.
+     *
+     * @param startsContent whether the excerpt is the beginning of the content
+     * @param endsContent whether the excerpt runs to the end of the content
+     */
+    public static String highlight(String excerpt, boolean startsContent, boolean endsContent, String term) {
+        if (excerpt == null || term == null || term.isEmpty()) {
+            return null;
+        }
+
+        // Fragments that touch are merged, so no text is repeated and every match is marked
+        List<int[]> ranges = new ArrayList<>();
+        int searchFrom = 0;
+        int match;
+        while ((match = indexOfIgnoreCase(excerpt, term, searchFrom)) >= 0) {
+            int start = Math.max(fragmentStart(excerpt, match), searchFrom);
+            int end = fragmentEnd(excerpt, match + term.length());
+            int[] previous = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (previous != null && start <= previous[1]) {
+                previous[1] = end;
+            } else if (ranges.size() < MAX_FRAGMENTS) {
+                ranges.add(new int[] {start, end});
+            } else {
+                break;
+            }
+            searchFrom = end;
+        }
+        if (ranges.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder snippet = new StringBuilder();
+        for (int[] range : ranges) {
+            if (snippet.length() > 0) {
+                snippet.append(' ');
+            }
+            appendFragment(excerpt, range[0], range[1], term, startsContent, endsContent, snippet);
+        }
+        return snippet.toString();
+    }
+
+    private static void appendFragment(String excerpt, int start, int end, String term,
+                                       boolean startsContent, boolean endsContent, StringBuilder out) {
+        if (start > 0 || !startsContent) {
+            out.append(ELLIPSIS);
+        }
+        int position = start;
+        int match;
+        while ((match = indexOfIgnoreCase(excerpt, term, position)) >= 0 && match + term.length() <= end) {
+            escape(excerpt, position, match, out);
+            out.append("<mark>");
+            escape(excerpt, match, match + term.length(), out);
+            out.append("</mark>");
+            position = match + term.length();
+        }
+        escape(excerpt, position, end, out);
+        if (end < excerpt.length() || !endsContent) {
+            out.append(ELLIPSIS);
+        }
+    }
+
+    /** Start of the context before a match, moved forward to a word boundary */
+    private static int fragmentStart(String text, int match) {
+        int start = Math.max(0, match - CONTEXT);
+        if (start == 0) {
+            return 0;
+        }
+        for (int i = start; i < match; i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    /** End of the context after a match, moved back to a word boundary */
+    private static int fragmentEnd(String text, int matchEnd) {
+        int end = Math.min(text.length(), matchEnd + CONTEXT);
+        if (end == text.length()) {
+            return end;
+        }
+        for (int i = end; i > matchEnd; i--) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int indexOfIgnoreCase(String text, String term, int from) {
+        for (int i = from, last = text.length() - term.length(); i <= last; i++) {
+            if (text.regionMatches(true, i, term, 0, term.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
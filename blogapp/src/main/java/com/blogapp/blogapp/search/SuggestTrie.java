@@ -0,0 +1,329 @@
+package com.blogapp.blogapp.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix index over blog titles. Every title is indexed from the start of each of its words,
+ * so "spr" finds "Getting started with Spring". Each node keeps the ids of its K most popular
+ * titles, so a lookup walks the prefix and returns that list without visiting the subtree.
+ *
+ * <p>It is a radix tree: edges carry whole strings and single-child chains are merged, so
+ * the node count stays proportional to the number of keys rather than their length.
+ * Children are kept in sorted parallel arrays rather than maps to keep nodes small. Not
+ * thread-safe; {@link TitleSuggestService} guards it with a read-write lock.
+ */
+class SuggestTrie {
+
+    /** Longer prefixes are practically never typed, so keys are cut here */
+    static final int MAX_KEY_LENGTH = 32;
+
+    static final int MAX_WORDS = 8;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final long[] NO_IDS = new long[0];
+
+    /** Most popular first, older posts first among equals */
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::score).reversed()
+            .thenComparingLong(Entry::id);
+
+    private final int topK;
+    private final Node root = new Node("");
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    SuggestTrie(int topK) {
+        this.topK = topK;
+    }
+
+    record Entry(long id, String title, long score, List<String> keys) {
+    }
+
+    void put(long id, String title, long score) {
+        remove(id);
+        Entry entry = new Entry(id, title, score, keysOf(title));
+        entries.put(id, entry);
+        for (String key : entry.keys()) {
+            for (Node node : insert(key, id)) {
+                offer(node, entry);
+            }
+        }
+    }
+
+    void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys()) {
+            List<Node> path = find(key);
+            if (path == null) {
+                continue;
+            }
+            Node last = path.get(path.size() - 1);
+            last.terminals = without(last.terminals, id);
+            refreshTop(path, id);
+        }
+    }
+
+    /** Most popular titles matching the prefix, best first */
+    List<Entry> suggest(String prefix, int limit) {
+        String key = SearchText.normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            // The prefix may end inside an edge, which still selects everything below it
+            int length = child == null ? 0 : Math.min(child.label.length(), key.length() - matched);
+            if (child == null || !child.label.regionMatches(0, key, matched, length)) {
+                return List.of();
+            }
+            matched += length;
+            node = child;
+        }
+        List<Entry> result = new ArrayList<>(Math.min(limit, node.top.length));
+        for (int i = 0; i < node.top.length && result.size() < limit; i++) {
+            result.add(entries.get(node.top[i]));
+        }
+        return result;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    Entry get(long id) {
+        return entries.get(id);
+    }
+
+    static List<String> keysOf(String title) {
+        String normalized = SearchText.normalize(title);
+        Set<String> keys = new LinkedHashSet<>();
+        int start = 0;
+        while (start < normalized.length() && keys.size() < MAX_WORDS) {
+            keys.add(normalized.substring(start, Math.min(normalized.length(), start + MAX_KEY_LENGTH)));
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return List.copyOf(keys);
+    }
+
+    /** Adds the id under the key, splitting an edge if needed; returns the nodes from the root down */
+    private List<Node> insert(String key, long id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null) {
+                child = new Node(key.substring(matched));
+                node.addChild(child);
+                node = child;
+                path.add(node);
+                break;
+            }
+            int common = commonPrefixLength(child.label, key, matched);
+            if (common < child.label.length()) {
+                // Split the edge: the shared part becomes a node above the old child
+                Node middle = new Node(child.label.substring(0, common));
+                middle.top = child.top;
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                node.replaceChild(middle);
+                child = middle;
+            }
+            matched += common;
+            node = child;
+            path.add(node);
+        }
+        node.terminals = append(node.terminals, id);
+        return path;
+    }
+
+    /** Nodes from the root to the node ending exactly at the key, or null */
+    private List<Node> find(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null || !key.startsWith(child.label, matched)) {
+                return null;
+            }
+            matched += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = 0;
+        while (length < label.length() && offset + length < key.length()
+                && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Adding a title can only push it into a top list, so that is an O(K) insert. Once a
+     * list is full and the title ranks below it, nothing changes, which keeps bulk loads
+     * in descending popularity cheap.
+     */
+    private void offer(Node node, Entry entry) {
+        long[] top = node.top;
+        if (top.length == topK && !ranksBefore(entry, entries.get(top[top.length - 1]))) {
+            return;
+        }
+        for (long id : top) {
+            if (id == entry.id()) {
+                return;
+            }
+        }
+        int position = 0;
+        while (position < top.length && !ranksBefore(entry, entries.get(top[position]))) {
+            position++;
+        }
+        long[] updated = new long[Math.min(topK, top.length + 1)];
+        System.arraycopy(top, 0, updated, 0, position);
+        updated[position] = entry.id();
+        System.arraycopy(top, position, updated, position + 1, updated.length - position - 1);
+        node.top = updated;
+    }
+
+    /**
+     * Recomputes, bottom-up, the top lists the removed title was in, drops nodes left empty
+     * and merges nodes left with a single child. Lists that never held it are unaffected.
+     */
+    private void refreshTop(List<Node> path, long removedId) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node node = path.get(depth);
+            if (Arrays.stream(node.top).noneMatch(id -> id == removedId)) {
+                continue;
+            }
+            node.top = best(node, removedId);
+            if (depth == 0) {
+                continue;
+            }
+            if (node.top.length == 0) {
+                path.get(depth - 1).removeChild(node);
+            } else if (node.terminals.length == 0 && node.children.length == 1) {
+                node.absorbOnlyChild();
+            }
+        }
+    }
+
+    /** Best of the node's own titles and its children's lists; other keys of the removed title may still be listed */
+    private long[] best(Node node, long removedId) {
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (long id : node.terminals) {
+            candidates.add(id);
+        }
+        for (Node child : node.children) {
+            for (long id : child.top) {
+                candidates.add(id);
+            }
+        }
+        candidates.remove(removedId);
+        return candidates.stream()
+                .map(entries::get)
+                .sorted(RANKING)
+                .limit(topK)
+                .mapToLong(Entry::id)
+                .toArray();
+    }
+
+    private static boolean ranksBefore(Entry a, Entry b) {
+        return RANKING.compare(a, b) < 0;
+    }
+
+    private static long[] append(long[] ids, long id) {
+        long[] extended = Arrays.copyOf(ids, ids.length + 1);
+        extended[ids.length] = id;
+        return extended;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        return Arrays.stream(ids).filter(other -> other != id).toArray();
+    }
+
+    private static final class Node {
+
+        private String label;
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private long[] terminals = NO_IDS;
+        private long[] top = NO_IDS;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+
+        void addChild(Node child) {
+            char c = child.label.charAt(0);
+            int insertAt = -Arrays.binarySearch(keys, c) - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = child;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        /** Swaps in a node for the child with the same first character */
+        void replaceChild(Node child) {
+            children[Arrays.binarySearch(keys, child.label.charAt(0))] = child;
+        }
+
+        void absorbOnlyChild() {
+            Node child = children[0];
+            label = label + child.label;
+            keys = child.keys;
+            children = child.children;
+            terminals = child.terminals;
+        }
+
+        void removeChild(Node child) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    char[] newKeys = new char[keys.length - 1];
+                    Node[] newChildren = new Node[children.length - 1];
+                    System.arraycopy(keys, 0, newKeys, 0, i);
+                    System.arraycopy(children, 0, newChildren, 0, i);
+                    System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+                    System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+                    keys = newKeys;
+                    children = newChildren;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.blogapp.blogapp.search;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.blogapp.cache.CacheInvalidationListener;
+import com.blogapp.blogapp.cache.CacheKeys;
+import com.blogapp.blogapp.dto.BlogSuggestionResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Title suggestions for the search box, answered from an in-memory {@link SuggestTrie}.
+ *
+ * <p>The index is loaded at startup and rebuilt every refresh interval, which is also when
+ * popularity (view counts) catches up. Created, edited and deleted blogs are applied as soon
+ * as their invalidation arrives, from this node or any other.
+ */
+@Slf4j
+@Service
+public class TitleSuggestService implements CacheInvalidationListener {
+
+    private static final String LOAD_SQL = "SELECT id, title, view_count FROM blogs ORDER BY view_count DESC, id";
+    private static final String RELOAD_SQL = "SELECT id, title, view_count FROM blogs WHERE id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Blogs changed while a rebuild was reading, applied again to the new index */
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.suggest.top-k:10}")
+    private int topK;
+
+    private SuggestTrie trie = new SuggestTrie(10);
+    private volatile boolean rebuilding;
+
+    public TitleSuggestService(JdbcTemplate jdbcTemplate, DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(1_000);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public List<BlogSuggestionResponse> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return trie.suggest(prefix, Math.min(limit, topK)).stream()
+                    .map(entry -> new BlogSuggestionResponse(entry.id(), entry.title(), entry.score()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.suggest.refresh-interval:600000}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        SuggestTrie fresh = new SuggestTrie(topK);
+        try {
+            // Most popular first, so top lists fill early and later titles rarely touch them
+            readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(LOAD_SQL,
+                    (RowCallbackHandler) row -> fresh.put(row.getLong("id"), row.getString("title"), row.getLong("view_count"))));
+        } catch (RuntimeException e) {
+            rebuilding = false;
+            log.warn("Could not rebuild the title suggestion index, keeping the current one: {}", e.getMessage());
+            return;
+        }
+
+        List<Long> changed;
+        lock.writeLock().lock();
+        try {
+            trie = fresh;
+            rebuilding = false;
+            changed = List.copyOf(changedDuringRebuild);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reload(changed);
+        log.info("Title suggestion index rebuilt with {} blogs in {} ms", fresh.size(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public void invalidate(Set<String> keys) {
+        List<Long> blogIds = keys.stream()
+                .filter(key -> CacheKeys.BLOG.equals(CacheKeys.typeOf(key)))
+                .map(CacheKeys::idOf)
+                .filter(id -> id != null)
+                .toList();
+        if (rebuilding) {
+            changedDuringRebuild.addAll(blogIds);
+        }
+        reload(blogIds);
+    }
+
+    @Override
+    public void invalidateAll() {
+        rebuild();
+    }
+
+    private void reload(List<Long> blogIds) {
+        if (blogIds.isEmpty()) {
+            return;
+        }
+        List<SuggestTrie.Entry> rows = jdbcTemplate.query(RELOAD_SQL,
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("bigint", blogIds.toArray())),
+                (row, rowNum) -> new SuggestTrie.Entry(row.getLong("id"), row.getString("title"), row.getLong("view_count"), List.of()));
+        lock.writeLock().lock();
+        try {
+            blogIds.forEach(trie::remove);
+            rows.forEach(entry -> trie.put(entry.id(), entry.title(), entry.score()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.blogapp.blogapp.seed;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Streams rows into a table with {@code COPY ... FROM STDIN (FORMAT BINARY)}.
+ * Callers write one {@link #startRow(int)} followed by exactly that many values, in column order.
+ */
+public class PgBinaryCopyWriter implements AutoCloseable {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    /** Postgres timestamps count microseconds from 2000-01-01 instead of 1970-01-01 */
+    private static final long PG_EPOCH_OFFSET_MICROS = 946_684_800_000_000L;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final CopyIn copyIn;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private PgBinaryCopyWriter(CopyIn copyIn) {
+        this.copyIn = copyIn;
+        buffer.put(SIGNATURE);
+        buffer.putInt(0); // flags
+        buffer.putInt(0); // header extension length
+    }
+
+    public static PgBinaryCopyWriter open(Connection connection, String table, String... columns) throws SQLException {
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN (FORMAT BINARY)";
+        return new PgBinaryCopyWriter(connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql));
+    }
+
+    public void startRow(int fieldCount) throws SQLException {
+        ensureCapacity(2);
+        buffer.putShort((short) fieldCount);
+    }
+
+    public void writeLong(long value) throws SQLException {
+        ensureCapacity(12);
+        buffer.putInt(8);
+        buffer.putLong(value);
+    }
+
+    public void writeBoolean(boolean value) throws SQLException {
+        ensureCapacity(5);
+        buffer.putInt(1);
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    /** Writes a {@code timestamp without time zone} given as microseconds since the Unix epoch */
+    public void writeTimestamp(long epochMicros) throws SQLException {
+        writeLong(epochMicros - PG_EPOCH_OFFSET_MICROS);
+    }
+
+    public void writeText(String value) throws SQLException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(4);
+        buffer.putInt(bytes.length);
+        if (bytes.length > buffer.remaining()) {
+            flush();
+            if (bytes.length > buffer.capacity()) {
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    public void writeNull() throws SQLException {
+        ensureCapacity(4);
+        buffer.putInt(-1);
+    }
+
+    /**
+     * Writes the trailer and completes the COPY
+     *
+     * @return the number of rows the server loaded
+     */
+    public long finish() throws SQLException {
+        ensureCapacity(2);
+        buffer.putShort((short) -1);
+        flush();
+        return copyIn.endCopy();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        // Only reached with the COPY still open when a row failed half-way
+        if (copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+
+    private void ensureCapacity(int bytes) throws SQLException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (buffer.position() > 0) {
+            copyIn.writeToCopy(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.blogapp.blogapp.seed;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Seeds production-scale volumes of users, blogs, blog images and comments with
+ * {@code COPY ... (FORMAT BINARY)}, bypassing JPA entirely.
+ *
+ * <p>Authorship, commenters and comment targets are Zipfian, view counts follow the
+ * popularity rank of each blog, and content lengths are log-normal. Every chunk of rows
+ * draws from its own random stream derived from {@code app.seed.seed}, so the same
+ * settings and chunk size produce the same rows regardless of thread count. Rows are
+ * appended after the current maximum ids, so only a fresh database gives identical ids.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyntheticDataGenerator {
+
+    private static final long MICROS_PER_HOUR = 3_600_000_000L;
+    private static final long MICROS_PER_DAY = 24 * MICROS_PER_HOUR;
+
+    /** Upper bound of images per blog, which also spaces out the image ids */
+    private static final int MAX_IMAGES_PER_BLOG = 4;
+
+    private static final long USERS_STREAM = 1;
+    private static final long BLOGS_STREAM = 2;
+    private static final long IMAGES_STREAM = 3;
+    private static final long COMMENTS_STREAM = 4;
+
+    private final DataSource dataSource;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${app.seed.seed:42}")
+    private long seed;
+
+    @Value("${app.seed.users:100000}")
+    private int users;
+
+    @Value("${app.seed.blogs:1000000}")
+    private int blogs;
+
+    @Value("${app.seed.comments:10000000}")
+    private int comments;
+
+    @Value("${app.seed.image-ratio:0.15}")
+    private double imageRatio;
+
+    @Value("${app.seed.zipf-exponent:0.95}")
+    private double zipfExponent;
+
+    @Value("${app.seed.max-views:1000000}")
+    private long maxViews;
+
+    @Value("${app.seed.end-date:2025-09-01T00:00:00}")
+    private String endDate;
+
+    @Value("${app.seed.days:730}")
+    private int days;
+
+    @Value("${app.seed.password:password123}")
+    private String password;
+
+    @Value("${app.seed.threads:4}")
+    private int threads;
+
+    @Value("${app.seed.chunk-size:100000}")
+    private int chunkSize;
+
+    public void generate() {
+        if ((blogs > 0 && users == 0) || (comments > 0 && blogs == 0)) {
+            throw new IllegalArgumentException("Blogs need users and comments need blogs to reference");
+        }
+
+        long started = System.nanoTime();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        long userBase = maxId(jdbcTemplate, "users");
+        long blogBase = maxId(jdbcTemplate, "blogs");
+        long imageBase = maxId(jdbcTemplate, "blog_images");
+        long commentBase = maxId(jdbcTemplate, "comments");
+
+        long endMicros = LocalDateTime.parse(endDate).toEpochSecond(ZoneOffset.UTC) * 1_000_000L;
+        long startMicros = endMicros - days * MICROS_PER_DAY;
+        Timeline timeline = new Timeline(startMicros, endMicros, users);
+        String passwordHash = passwordEncoder.encode(password);
+
+        log.info("Seeding {} users, {} blogs and {} comments with seed {}", users, blogs, comments, seed);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            load(executor, "users", USERS_STREAM, users, new String[] {
+                "id", "email", "password", "first_name", "last_name", "bio", "created_at", "updated_at"
+            }, (writer, random, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    long id = userBase + 1 + i;
+                    long createdAt = timeline.userCreatedAt(i);
+                    writer.startRow(8);
+                    writer.writeLong(id);
+                    writer.writeText("seed" + id + "@example.com");
+                    writer.writeText(passwordHash);
+                    writer.writeText(SyntheticText.FIRST_NAMES[random.nextInt(SyntheticText.FIRST_NAMES.length)]);
+                    writer.writeText(SyntheticText.LAST_NAMES[random.nextInt(SyntheticText.LAST_NAMES.length)]);
+                    writer.writeText(random.nextInt(5) < 2
+                            ? SyntheticText.paragraphs(random, SyntheticText.length(random, 160, 0.6, 20, 1000))
+                            : null);
+                    writer.writeTimestamp(createdAt);
+                    writer.writeTimestamp(createdAt);
+                }
+            });
+
+            ZipfSampler authors = blogs > 0 ? new ZipfSampler(users, zipfExponent, seed * 31 + 1) : null;
+            ZipfSampler popularity = blogs > 0 ? new ZipfSampler(blogs, zipfExponent, seed * 31 + 2) : null;
+            long[] blogCreatedAt = new long[blogs];
+
+            load(executor, "blogs", BLOGS_STREAM, blogs, new String[] {
+                "id", "title", "content", "author_id", "view_count", "created_at", "updated_at"
+            }, (writer, random, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int author = authors.sample(random);
+                    // Ids follow creation order, but nobody posts before signing up
+                    long slot = startMicros + (long) ((endMicros - startMicros) * ((i + random.nextDouble()) / blogs));
+                    long createdAt = Math.min(endMicros, Math.max(slot, timeline.userCreatedAt(author) + MICROS_PER_HOUR));
+                    blogCreatedAt[i] = createdAt;
+                    long updatedAt = random.nextInt(5) == 0
+                            ? Math.min(endMicros, createdAt + random.nextLong(30 * MICROS_PER_DAY))
+                            : createdAt;
+                    double rankViews = maxViews / Math.pow(popularity.rankOf(i) + 1, zipfExponent);
+
+                    writer.startRow(7);
+                    writer.writeLong(blogBase + 1 + i);
+                    writer.writeText(SyntheticText.title(random));
+                    writer.writeText(SyntheticText.paragraphs(random, SyntheticText.length(random, 1800, 0.8, 200, 20000)));
+                    writer.writeLong(userBase + 1 + author);
+                    writer.writeLong((long) (rankViews * Math.exp(0.5 * random.nextGaussian())));
+                    writer.writeTimestamp(createdAt);
+                    writer.writeTimestamp(updatedAt);
+                }
+            });
+
+            load(executor, "blog_images", IMAGES_STREAM, blogs, new String[] {
+                "id", "blog_id", "file_name", "original_name", "file_path", "content_type", "file_size", "created_at"
+            }, (writer, random, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    if (random.nextDouble() >= imageRatio) {
+                        continue;
+                    }
+                    int images = 1 + random.nextInt(MAX_IMAGES_PER_BLOG);
+                    for (int k = 0; k < images; k++) {
+                        long id = imageBase + 1 + (long) i * MAX_IMAGES_PER_BLOG + k;
+                        boolean png = random.nextInt(4) == 0;
+                        String fileName = "seed-" + id + (png ? ".png" : ".jpg");
+                        writer.startRow(8);
+                        writer.writeLong(id);
+                        writer.writeLong(blogBase + 1 + i);
+                        writer.writeText(fileName);
+                        writer.writeText("photo-" + (k + 1) + (png ? ".png" : ".jpg"));
+                        writer.writeText("uploads/" + fileName);
+                        writer.writeText(png ? "image/png" : "image/jpeg");
+                        writer.writeLong(SyntheticText.length(random, 350_000, 0.7, 10_000, 5_242_880));
+                        writer.writeTimestamp(blogCreatedAt[i]);
+                    }
+                }
+            });
+
+            ZipfSampler commenters = comments > 0 ? new ZipfSampler(users, zipfExponent, seed * 31 + 3) : null;
+
+            load(executor, "comments", COMMENTS_STREAM, comments, new String[] {
+                "id", "content", "blog_id", "author_id", "is_edited", "created_at", "updated_at"
+            }, (writer, random, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int blog = popularity.sample(random);
+                    int author = commenters.sample(random);
+                    // Replies arrive with an exponential delay after the later of post and sign-up
+                    long earliest = Math.max(blogCreatedAt[blog], timeline.userCreatedAt(author));
+                    long delay = (long) (-Math.log(1 - random.nextDouble()) * 2 * MICROS_PER_DAY);
+                    long createdAt = Math.min(endMicros, earliest + delay);
+                    boolean edited = random.nextInt(20) == 0;
+
+                    writer.startRow(7);
+                    writer.writeLong(commentBase + 1 + i);
+                    writer.writeText(SyntheticText.paragraphs(random, SyntheticText.length(random, 120, 0.9, 5, 2000)));
+                    writer.writeLong(blogBase + 1 + blog);
+                    writer.writeLong(userBase + 1 + author);
+                    writer.writeBoolean(edited);
+                    writer.writeTimestamp(createdAt);
+                    writer.writeTimestamp(edited ? Math.min(endMicros, createdAt + random.nextLong(MICROS_PER_DAY)) : createdAt);
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String table : List.of("users", "blogs", "blog_images", "comments")) {
+            // Explicit ids leave the identity sequences behind
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                    + "GREATEST((SELECT MAX(id) FROM " + table + "), 1))", Long.class);
+        }
+        jdbcTemplate.execute("ANALYZE users, blogs, blog_images, comments");
+        log.info("Seeding finished in {} s", (System.nanoTime() - started) / 1_000_000_000L);
+    }
+
+    private void load(ExecutorService executor, String table, long stream, int rows,
+                      String[] columns, ChunkWriter chunkWriter) {
+        long started = System.nanoTime();
+        List<Future<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < rows; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(rows, from + chunkSize);
+            SplittableRandom random = chunkRandom(stream, from / chunkSize);
+            chunks.add(executor.submit(() -> copyChunk(table, columns, chunkWriter, random, chunkFrom, chunkTo)));
+        }
+
+        long loaded = 0;
+        try {
+            for (Future<Long> chunk : chunks) {
+                loaded += chunk.get();
+            }
+        } catch (ExecutionException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            throw new RuntimeException("Failed to load " + table + ": " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading " + table, e);
+        }
+
+        double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+        log.info("Loaded {} rows into {} in {} s ({} rows/s)",
+                loaded, table, String.format("%.1f", seconds), (long) (loaded / seconds));
+    }
+
+    private long copyChunk(String table, String[] columns, ChunkWriter chunkWriter,
+                           SplittableRandom random, int from, int to) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET LOCAL synchronous_commit TO OFF");
+                }
+                long loaded;
+                try (PgBinaryCopyWriter writer = PgBinaryCopyWriter.open(connection, table, columns)) {
+                    chunkWriter.write(writer, random, from, to);
+                    loaded = writer.finish();
+                }
+                connection.commit();
+                return loaded;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private SplittableRandom chunkRandom(long stream, int chunk) {
+        long mixed = seed;
+        mixed = mixed * 0x9E3779B97F4A7C15L + stream;
+        mixed = mixed * 0x9E3779B97F4A7C15L + chunk;
+        return new SplittableRandom(mixed);
+    }
+
+    private static long maxId(JdbcTemplate jdbcTemplate, String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max != null ? max : 0;
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(PgBinaryCopyWriter writer, SplittableRandom random, int from, int to) throws SQLException;
+    }
+
+    /** Users sign up over the first half of the window; content spans all of it */
+    private record Timeline(long startMicros, long endMicros, int users) {
+
+        long userCreatedAt(int user) {
+            return startMicros + (long) ((endMicros - startMicros) / 2 * ((double) user / Math.max(1, users)));
+        }
+    }
+}
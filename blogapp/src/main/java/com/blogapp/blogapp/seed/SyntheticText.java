@@ -0,0 +1,89 @@
+package com.blogapp.blogapp.seed;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Filler text and length distributions for generated rows
+ */
+final class SyntheticText {
+
+    private static final String[] WORDS = {
+        "spring", "java", "database", "index", "query", "latency", "cache", "thread", "memory", "request",
+        "response", "service", "design", "pattern", "review", "release", "deploy", "server", "client", "stream",
+        "buffer", "network", "storage", "schema", "table", "column", "join", "scan", "plan", "budget",
+        "the", "a", "and", "of", "to", "in", "is", "for", "with", "on",
+        "that", "this", "it", "as", "we", "you", "our", "but", "not", "by",
+        "travel", "coffee", "garden", "music", "recipe", "weekend", "mountain", "river", "city", "morning",
+        "simple", "fast", "slow", "better", "new", "old", "small", "large", "quiet", "bright",
+        "learn", "build", "write", "read", "measure", "improve", "share", "explore", "test", "ship",
+        "idea", "story", "lesson", "mistake", "habit", "project", "team", "tool", "guide", "note",
+        "really", "often", "never", "always", "today", "finally", "maybe", "almost", "quickly", "together"
+    };
+
+    static final String[] FIRST_NAMES = {
+        "Aisha", "Ben", "Carla", "Dmitri", "Elena", "Farid", "Grace", "Hiro", "Ines", "Jonas",
+        "Kaif", "Lena", "Mateo", "Nora", "Omar", "Priya", "Quinn", "Rosa", "Sven", "Tara",
+        "Umar", "Vera", "Wei", "Ximena", "Yusuf", "Zoe"
+    };
+
+    static final String[] LAST_NAMES = {
+        "Ahmed", "Brown", "Costa", "Dubois", "Evans", "Fischer", "Garcia", "Hansen", "Ivanov", "Jensen",
+        "Khan", "Lopez", "Muller", "Nakamura", "Okafor", "Patel", "Rossi", "Silva", "Tanaka", "Weber"
+    };
+
+    private SyntheticText() {
+    }
+
+    /** Log-normal length around a median, clamped to {@code [min, max]} */
+    static int length(RandomGenerator random, int median, double sigma, int min, int max) {
+        double value = median * Math.exp(sigma * random.nextGaussian());
+        return (int) Math.max(min, Math.min(max, value));
+    }
+
+    static String title(RandomGenerator random) {
+        StringBuilder title = new StringBuilder(64);
+        int words = 3 + random.nextInt(8);
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return title.toString();
+    }
+
+    /** Sentences of random words, cut to roughly {@code targetLength} characters, with a blank line between paragraphs */
+    static String paragraphs(RandomGenerator random, int targetLength) {
+        StringBuilder text = new StringBuilder(targetLength + 16);
+        boolean sentenceStart = true;
+        int sentenceWords = 0;
+        int paragraphSentences = 0;
+        while (text.length() < targetLength) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (sentenceStart) {
+                text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                sentenceStart = false;
+            } else {
+                text.append(' ').append(word);
+            }
+            sentenceWords++;
+            if (sentenceWords >= 6 && random.nextInt(6) == 0) {
+                text.append('.');
+                sentenceStart = true;
+                sentenceWords = 0;
+                paragraphSentences++;
+                if (paragraphSentences >= 3 && random.nextInt(3) == 0) {
+                    text.append("\n\n");
+                    paragraphSentences = 0;
+                } else {
+                    text.append(' ');
+                }
+            }
+        }
+        if (!sentenceStart) {
+            text.append('.');
+        }
+        return text.toString().strip();
+    }
+}
@@ -0,0 +1,65 @@
+package com.blogapp.blogapp.seed;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples indexes in {@code [0, n)} with Zipfian popularity. Ranks are scrambled through a
+ * fixed permutation so the popular rows are spread over the id range instead of being the
+ * lowest ids. Thread-safe once built.
+ */
+public class ZipfSampler {
+
+    private final int size;
+    private final double[] cumulative;
+    private final long multiplier;
+    private final long inverseMultiplier;
+    private final long offset;
+
+    public ZipfSampler(int size, double exponent, long scrambleSeed) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Zipf sampler needs at least one element");
+        }
+        this.size = size;
+        this.cumulative = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+
+        // index = (rank * multiplier + offset) mod size is a bijection when multiplier is coprime to size
+        long candidate = Math.floorMod(scrambleSeed * 0x9E3779B97F4A7C15L, size) | 1;
+        while (BigInteger.valueOf(candidate).gcd(BigInteger.valueOf(size)).intValue() != 1) {
+            candidate += 2;
+        }
+        this.multiplier = candidate % size;
+        this.inverseMultiplier = size == 1 ? 0
+                : BigInteger.valueOf(multiplier).modInverse(BigInteger.valueOf(size)).longValue();
+        this.offset = Math.floorMod(scrambleSeed, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Returns a scrambled index, most often one of the popular ranks */
+    public int sample(RandomGenerator random) {
+        double target = random.nextDouble() * cumulative[size - 1];
+        int rank = Arrays.binarySearch(cumulative, target);
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return indexOf(Math.min(rank, size - 1));
+    }
+
+    /** Popularity rank of an index, 0 being the most popular */
+    public int rankOf(int index) {
+        return (int) (Math.floorMod(index - offset, (long) size) * inverseMultiplier % size);
+    }
+
+    private int indexOf(int rank) {
+        return (int) ((rank * multiplier % size + offset) % size);
+    }
+}
@@ -1,18 +1,50 @@
 package com.blogapp.blogapp.service;
 
+import com.blogapp.blogapp.analytics.UniqueViewerService;
+import com.blogapp.blogapp.analytics.ViewAnalyticsService;
+import com.blogapp.blogapp.cache.CacheInvalidationBus;
+import com.blogapp.blogapp.cache.CacheKeys;
+import com.blogapp.blogapp.changes.ChangeLog;
+import com.blogapp.blogapp.dto.BlogMapper;
+import com.blogapp.blogapp.dto.BlogResponse;
+import com.blogapp.blogapp.dto.BlogSummaryResponse;
 import com.blogapp.blogapp.entity.Blog;
 import com.blogapp.blogapp.entity.User;
+import com.blogapp.blogapp.repository.BlogCount;
 import com.blogapp.blogapp.repository.BlogRepository;
+import com.blogapp.blogapp.repository.BlogSummaryRow;
+import com.blogapp.blogapp.repository.BlogVersionRow;
 import com.blogapp.blogapp.repository.UserRepository;
+import com.blogapp.blogapp.search.RelatedPostsService;
+import com.blogapp.blogapp.search.SearchResultCache;
+import com.blogapp.blogapp.search.SnippetHighlighter;
+import com.blogapp.blogapp.trending.TrendingService;
+import com.blogapp.blogapp.util.FieldSelection;
+import com.blogapp.blogapp.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +53,30 @@ public class BlogService {
     
     private final BlogRepository blogRepository;
     private final UserRepository userRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ChangeLog changeLog;
+    private final TrendingService trendingService;
+    private final UniqueViewerService uniqueViewerService;
+    private final ViewAnalyticsService viewAnalyticsService;
+    private final RelatedPostsService relatedPostsService;
+    private final SearchResultCache searchResultCache;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.single-flight.timeout:2000}")
+    private long singleFlightTimeoutMillis;
+    
+    private SingleFlight<Long, Optional<BlogResponse>> blogReads;
+    private SingleFlight<Long, Optional<BlogVersionRow>> blogVersionReads;
+    private TransactionTemplate readOnlyTransaction;
+    
+    @PostConstruct
+    void init() {
+        blogReads = new SingleFlight<>("blog", Duration.ofMillis(singleFlightTimeoutMillis), meterRegistry);
+        blogVersionReads = new SingleFlight<>("blog-version", Duration.ofMillis(singleFlightTimeoutMillis), meterRegistry);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
     
     /**
      * Get all blogs with pagination and sorting options
@@ -41,11 +97,105 @@ public class BlogService {
     // Tag-related methods removed
     
     /**
-     * Search blogs by title or content
+     * Get a page of blog summaries for ?fields=, reading only the columns behind the selected fields
+     */
+    @Transactional(readOnly = true)
+    public Page<BlogSummaryResponse> getBlogSummaries(Pageable pageable, String sortBy, FieldSelection fields) {
+        Page<BlogSummaryResponse> summaries = blogRepository.findSummaries(sortBy, fields, pageable);
+        return fields.includes("commentCount") ? withCommentCounts(summaries) : summaries;
+    }
+    
+    /**
+     * Fill in the comment counts of blogs not counted yet, with one grouped count for the whole
+     * page; a page of counted blogs is returned as it is, without a query
      */
     @Transactional(readOnly = true)
-    public Page<Blog> searchBlogs(String searchTerm, Pageable pageable) {
-        return blogRepository.searchByTitleOrContent(searchTerm, pageable);
+    public List<BlogSummaryResponse> withCommentCounts(List<BlogSummaryResponse> summaries) {
+        List<Long> uncounted = summaries.stream()
+                .filter(summary -> summary.getCommentCount() == null)
+                .map(BlogSummaryResponse::getId)
+                .toList();
+        if (uncounted.isEmpty()) {
+            return summaries;
+        }
+        Map<Long, Long> counts = countComments(uncounted);
+        // Copies, as summaries may be shared
+        return summaries.stream()
+                .map(summary -> summary.getCommentCount() != null ? summary
+                        : BlogMapper.withCommentCount(summary, counts.getOrDefault(summary.getId(), 0L)))
+                .toList();
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<BlogSummaryResponse> withCommentCounts(Page<BlogSummaryResponse> page) {
+        return new PageImpl<>(withCommentCounts(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+    
+    /**
+     * Fill in, in place, the comment counts of blog responses not counted yet, with one grouped
+     * count, as withCommentCounts does for summaries
+     */
+    @Transactional(readOnly = true)
+    public void fillCommentCounts(Collection<BlogResponse> responses) {
+        List<Long> uncounted = responses.stream()
+                .filter(response -> response.getCommentCount() == null)
+                .map(BlogResponse::getId)
+                .toList();
+        if (uncounted.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> counts = countComments(uncounted);
+        responses.stream()
+                .filter(response -> response.getCommentCount() == null)
+                .forEach(response -> response.setCommentCount(counts.getOrDefault(response.getId(), 0L)));
+    }
+    
+    private Map<Long, Long> countComments(List<Long> blogIds) {
+        return blogRepository.countCommentsByBlogIds(blogIds).stream()
+                .collect(Collectors.toMap(BlogCount::getBlogId, BlogCount::getCount));
+    }
+    
+    /**
+     * Search blogs by title or content, with a highlighted snippet of where the content matched
+     * Repeated searches take the ids from the search result cache and only look the summaries up by id
+     */
+    @Transactional(readOnly = true)
+    public Page<BlogSummaryResponse> searchBlogs(String searchTerm, Pageable pageable) {
+        String query = SearchResultCache.normalizeQuery(searchTerm);
+        SearchResultCache.Key key = new SearchResultCache.Key(query, pageable.getPageNumber(), pageable.getPageSize());
+        SearchResultCache.Result cached = searchResultCache.get(key);
+        if (cached != null) {
+            return new PageImpl<>(withCommentCounts(hydrateSearchResult(cached)), pageable, cached.total());
+        }
+        
+        long generation = searchResultCache.generation();
+        Page<BlogSummaryResponse> results = blogRepository.searchByTitleOrContent(query, pageable).map(hit -> {
+            String snippet = SnippetHighlighter.highlight(hit.getExcerpt(), hit.getExcerptStart() == 1,
+                    hit.getExcerpt().length() < BlogRepository.EXCERPT_LENGTH, query);
+            return BlogMapper.toBlogSummaryResponse(hit, snippet);
+        });
+        searchResultCache.put(key, generation, new SearchResultCache.Result(
+                results.getContent().stream().map(BlogSummaryResponse::getId).toList(),
+                results.getContent().stream().map(BlogSummaryResponse::getSnippet).toList(),
+                results.getTotalElements()));
+        return withCommentCounts(results);
+    }
+    
+    private List<BlogSummaryResponse> hydrateSearchResult(SearchResultCache.Result result) {
+        if (result.ids().isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BlogSummaryRow> rows = blogRepository.findSummaryRowsByIdIn(result.ids()).stream()
+                .collect(Collectors.toMap(BlogSummaryRow::getId, Function.identity()));
+        List<BlogSummaryResponse> summaries = new ArrayList<>(result.ids().size());
+        for (int i = 0; i < result.ids().size(); i++) {
+            BlogSummaryRow row = rows.get(result.ids().get(i));
+            // Deleted since, and its invalidation has not arrived yet
+            if (row != null) {
+                summaries.add(BlogMapper.toBlogSummaryResponse(row, result.snippets().get(i)));
+            }
+        }
+        return summaries;
     }
     
     // Tag search methods removed
@@ -59,16 +209,88 @@ public class BlogService {
     }
     
     /**
-     * Get a specific blog by ID and increment view count
+     * Get several blogs for display with one query, by id; views are not counted
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BlogResponse> getBlogResponses(Collection<Long> ids) {
+        List<BlogResponse> responses = blogRepository.findAllByIdWithAuthor(Set.copyOf(ids)).stream()
+                .map(blog -> BlogMapper.withViewCount(BlogMapper.toBlogResponse(blog),
+                        blog.getViewCount() + viewAnalyticsService.pendingViews(blog.getId())))
+                .toList();
+        fillCommentCounts(responses);
+        return responses.stream().collect(Collectors.toMap(BlogResponse::getId, Function.identity()));
+    }
+    
+    /**
+     * Get a blog for display and count the view, and the viewer among its unique viewers.
+     * Concurrent reads of the same blog share one query, run before any connection is
+     * taken, and views are buffered, so a burst on a popular post costs one read and no writes.
      */
-    public Optional<Blog> getBlogByIdAndIncrementViews(Long id) {
-        Optional<Blog> blogOpt = blogRepository.findByIdWithAuthor(id);
-        if (blogOpt.isPresent()) {
-            blogRepository.incrementViewCount(id);
-            // Refresh the blog to get updated view count
-            return blogRepository.findByIdWithAuthor(id);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<BlogResponse> getBlogResponseAndIncrementViews(Long id, String viewerKey) {
+        Optional<BlogResponse> blog = blogReads.execute(id, () -> readOnlyTransaction.execute(status ->
+                blogRepository.findByIdWithAuthor(id).map(BlogMapper::toBlogResponse).map(response -> {
+                    fillCommentCounts(List.of(response));
+                    return response;
+                })));
+        if (blog.isEmpty()) {
+            return blog;
         }
-        return blogOpt;
+
+        long pendingViews = viewAnalyticsService.recordView(id);
+        // The shared response is left alone, each caller sees its own view counted
+        BlogResponse viewed = BlogMapper.withViewCount(blog.get(), blog.get().getViewCount() + pendingViews);
+        viewed.setUniqueViewers(uniqueViewerService.recordView(id, viewerKey));
+        trendingService.recordView(viewed);
+        return Optional.of(viewed);
+    }
+    
+    /**
+     * Get what a blog response depends on, without its content, to answer conditional requests
+     * Concurrent lookups of the same blog share one query, in a transaction of the leader's that
+     * hands the connection back as soon as the row is read
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<BlogVersionRow> getBlogVersion(Long id) {
+        return blogVersionReads.execute(id, () -> readOnlyTransaction.execute(status -> blogRepository.findVersionById(id)));
+    }
+    
+    /**
+     * Count a view of a blog the viewer already has, as getBlogResponseAndIncrementViews does
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void recordView(Long id, long viewCount, String viewerKey) {
+        long pendingViews = viewAnalyticsService.recordView(id);
+        uniqueViewerService.recordView(id, viewerKey);
+        trendingService.recordView(id, viewCount + pendingViews);
+    }
+    
+    /**
+     * Get a page of the currently trending blogs.
+     * Served from memory; only blogs changed since they were last viewed are reloaded.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Page<BlogSummaryResponse> getTrendingBlogs(Pageable pageable) {
+        List<Long> ranking = trendingService.ranking();
+        int from = (int) Math.min(pageable.getOffset(), ranking.size());
+        int to = Math.min(from + pageable.getPageSize(), ranking.size());
+        List<Long> ids = ranking.subList(from, to);
+        
+        List<Long> missing = ids.stream()
+                .filter(id -> trendingService.summary(id).isEmpty())
+                .toList();
+        if (!missing.isEmpty()) {
+            List<Blog> reloaded = readOnlyTransaction.execute(status -> blogRepository.findAllByIdWithAuthor(missing));
+            reloaded.forEach(blog -> trendingService.putSummary(BlogMapper.toBlogSummaryResponse(blog)));
+            Set<Long> found = reloaded.stream().map(Blog::getId).collect(Collectors.toSet());
+            missing.stream().filter(id -> !found.contains(id)).forEach(trendingService::remove);
+        }
+        
+        List<BlogSummaryResponse> content = ids.stream()
+                .map(trendingService::summary)
+                .flatMap(Optional::stream)
+                .toList();
+        return new PageImpl<>(withCommentCounts(content), pageable, ranking.size());
     }
     
     /**
@@ -101,7 +323,12 @@ public class BlogService {
         blog.setViewCount(0L);
         blog.setAuthor(author);
         
-        return blogRepository.save(blog);
+        Blog savedBlog = blogRepository.save(blog);
+        userRepository.addToBlogCount(author.getId(), 1);
+        relatedPostsService.updateSignature(savedBlog.getId(), content);
+        cacheInvalidationBus.publish(CacheKeys.blog(savedBlog.getId()));
+        changeLog.blogCreated(savedBlog.getId());
+        return savedBlog;
     }
     
     /**
@@ -120,7 +347,11 @@ public class BlogService {
         blog.setTitle(title);
         blog.setContent(content);
         
-        return blogRepository.save(blog);
+        Blog savedBlog = blogRepository.save(blog);
+        relatedPostsService.updateSignature(blogId, content);
+        cacheInvalidationBus.publish(CacheKeys.blog(blogId));
+        changeLog.blogUpdated(blogId);
+        return savedBlog;
     }
     
     /**
@@ -136,8 +367,19 @@ public class BlogService {
             throw new AccessDeniedException("You can only delete your own blog posts");
         }
         
+        // Its comments go with it (cascade), and need tombstones of their own
+        blog.getComments().forEach(comment -> changeLog.commentDeleted(comment.getId(), blogId));
+        
         // Delete the blog directly - no tag relationships to clear
+        Map<Long, Long> commentsByAuthor = blog.getComments().stream()
+                .collect(Collectors.groupingBy(comment -> comment.getAuthor().getId(), TreeMap::new, Collectors.counting()));
         blogRepository.delete(blog);
+        // The blog row first, as comment writes lock it before their author's row
+        blogRepository.flush();
+        userRepository.addToBlogCount(blog.getAuthor().getId(), -1);
+        commentsByAuthor.forEach((authorId, count) -> userRepository.addToCommentCount(authorId, -count));
+        cacheInvalidationBus.publish(CacheKeys.blog(blogId), CacheKeys.blogComments(blogId));
+        changeLog.blogDeleted(blogId);
     }
     
     /**
@@ -0,0 +1,78 @@
+package com.blogapp.blogapp.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Repairs blogs.comment_count, which CommentService keeps on every write, wherever it is
+ * missing or has drifted: blogs bulk-loaded or written around the services, comments
+ * deleted by hand. Walks the blogs in batches of ids, one transaction each.
+ *
+ * <p>A batch locks its blogs first. A comment write updates the count after inserting or
+ * deleting its comments, so it either committed before the lock and is counted, or waits
+ * for the batch and then adds its change to the repaired count. The lock does not block
+ * the inserts themselves, whose foreign key check only takes a key share lock.
+ */
+@Slf4j
+@Component
+public class CommentCountReconciler {
+
+    static final String LOCK_SQL = "SELECT id FROM blogs WHERE id > ? ORDER BY id LIMIT ? FOR NO KEY UPDATE";
+    static final String REPAIR_SQL = "UPDATE blogs b SET comment_count = counted.count FROM "
+            + "(SELECT id, (SELECT COUNT(*) FROM comments c WHERE c.blog_id = blogs.id) AS count FROM blogs "
+            + "WHERE id >= ? AND id <= ?) counted "
+            + "WHERE b.id = counted.id AND b.comment_count IS DISTINCT FROM counted.count";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final int batchSize;
+    private final Counter repaired;
+
+    public CommentCountReconciler(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  @Value("${app.comments.count-reconcile-batch-size:1000}") int batchSize,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.repaired = meterRegistry.counter("blogapp.comments.counts.repaired");
+    }
+
+    @Scheduled(fixedDelayString = "${app.comments.count-reconcile-interval:600000}")
+    public void reconcile() {
+        long after = 0;
+        int total = 0;
+        while (true) {
+            long from = after;
+            Batch batch = writeTransaction.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(LOCK_SQL, Long.class, from, batchSize);
+                if (ids.isEmpty()) {
+                    return new Batch(0, from, 0);
+                }
+                long last = ids.get(ids.size() - 1);
+                return new Batch(ids.size(), last, jdbcTemplate.update(REPAIR_SQL, ids.get(0), last));
+            });
+            total += batch.repaired();
+            after = batch.last();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        repaired.increment(total);
+        if (total > 0) {
+            log.info("Repaired the comment counts of {} blogs", total);
+        }
+    }
+
+    private record Batch(int size, long last, int repaired) {
+    }
+}
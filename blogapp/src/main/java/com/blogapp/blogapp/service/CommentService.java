@@ -1,22 +1,50 @@
 package com.blogapp.blogapp.service;
 
+import com.blogapp.blogapp.cache.CacheInvalidationBus;
+import com.blogapp.blogapp.cache.CacheKeys;
+import com.blogapp.blogapp.changes.ChangeLog;
 import com.blogapp.blogapp.dto.CommentRequest;
 import com.blogapp.blogapp.dto.CommentResponse;
+import com.blogapp.blogapp.dto.CommentThreadResponse;
+import com.blogapp.blogapp.dto.CursorPage;
 import com.blogapp.blogapp.entity.Blog;
 import com.blogapp.blogapp.entity.Comment;
 import com.blogapp.blogapp.entity.User;
 import com.blogapp.blogapp.repository.BlogRepository;
 import com.blogapp.blogapp.repository.CommentRepository;
+import com.blogapp.blogapp.repository.CommentThreadRow;
+import com.blogapp.blogapp.repository.CommentsVersionRow;
 import com.blogapp.blogapp.repository.UserRepository;
+import com.blogapp.blogapp.util.CommentPath;
+import com.blogapp.blogapp.util.KeysetCursor;
+import com.blogapp.blogapp.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class CommentService {
     
     @Autowired
@@ -28,18 +56,146 @@ public class CommentService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+    
+    @Autowired
+    private ChangeLog changeLog;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${app.single-flight.timeout:2000}")
+    private long singleFlightTimeoutMillis;
+    
+    @Value("${app.comments.max-thread-size:1000}")
+    private int maxThreadSize;
+    
+    @Value("${app.comments.path-backfill-batch-size:5000}")
+    private int pathBackfillBatchSize;
+    
+    private SingleFlight<CommentPageKey, Page<CommentResponse>> commentPageReads;
+    
+    private SingleFlight<ThreadPageKey, Page<CommentThreadResponse>> threadPageReads;
+    
+    private SingleFlight<Long, Optional<CommentsVersionRow>> commentsVersionReads;
+    
+    private TransactionTemplate readOnlyTransaction;
+    
+    /** Comments up to this id have been given their path; the backfill runs on one thread */
+    private long pathsCheckedUpTo;
+    
+    @PostConstruct
+    void init() {
+        commentsVersionReads = new SingleFlight<>("blog-comments-version", Duration.ofMillis(singleFlightTimeoutMillis),
+                meterRegistry);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        commentPageReads = new SingleFlight<>("blog-comments", Duration.ofMillis(singleFlightTimeoutMillis), meterRegistry);
+        threadPageReads = new SingleFlight<>("blog-comment-threads", Duration.ofMillis(singleFlightTimeoutMillis), meterRegistry);
+    }
+    
+    /**
+     * Concurrent requests for the same page of a blog's comments share one query
+     */
     public Page<CommentResponse> getCommentsByBlogId(Long blogId, Pageable pageable) {
-        Page<Comment> comments = commentRepository.findByBlogIdOrderByCreatedAtDesc(blogId, pageable);
-        return comments.map(this::convertToResponse);
+        CommentPageKey key = new CommentPageKey(blogId, pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort().toString());
+        return commentPageReads.execute(key, () -> {
+            Page<Comment> comments = commentRepository.findByBlogIdOrderByCreatedAtDesc(blogId, pageable);
+            return comments.map(this::convertToResponse);
+        });
     }
     
-    public List<CommentResponse> getCommentsByUserId(Long userId) {
-        List<Comment> comments = commentRepository.findByAuthorIdOrderByCreatedAtDesc(userId);
-        return comments.stream()
+    /**
+     * A page of top-level comments, newest first, each with its first replies in reading order.
+     * One statement reads every thread of the page from its range of paths, however deep the
+     * replies go; concurrent requests for the same page share it
+     */
+    public Page<CommentThreadResponse> getThreadsByBlogId(Long blogId, Pageable pageable, int repliesPerThread) {
+        ThreadPageKey key = new ThreadPageKey(blogId, pageable.getPageNumber(), pageable.getPageSize(), repliesPerThread);
+        return threadPageReads.execute(key, () -> {
+            List<CommentThreadRow> rows = commentRepository.findThreadsByBlogId(blogId, pageable.getOffset(),
+                    pageable.getPageSize(), repliesPerThread + 1);
+            List<CommentThreadResponse> threads = new ArrayList<>(pageable.getPageSize());
+            for (CommentThreadRow row : rows) {
+                CommentResponse response = convertToResponse(row);
+                if (row.getParentId() == null) {
+                    threads.add(new CommentThreadResponse(response, new ArrayList<>(repliesPerThread)));
+                } else {
+                    threads.get(threads.size() - 1).getReplies().add(response);
+                }
+            }
+            return PageableExecutionUtils.getPage(threads, pageable, () -> commentRepository.countTopLevelByBlogId(blogId));
+        });
+    }
+    
+    /**
+     * A comment and its replies at every depth in reading order, at most max-thread-size of them,
+     * read as one range of paths
+     */
+    public List<CommentResponse> getThread(Long commentId) {
+        Comment comment = commentRepository.findById(commentId)
+                .orElseThrow(() -> new RuntimeException("Comment not found"));
+        if (comment.getPath() == null) {
+            // Not backfilled yet, so outside every range; it has no replies, as a reply gives its parent a path
+            return List.of(convertToResponse(comment));
+        }
+        String path = comment.getPath();
+        return commentRepository.findSubtree(comment.getBlog().getId(), path, CommentPath.subtreeEnd(path),
+                        Limit.of(maxThreadSize)).stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * What the comment pages of a blog depend on, to answer conditional requests before reading them;
+     * concurrent lookups for the same blog share one query, as for BlogService.getBlogVersion
+     */
+    public Optional<CommentsVersionRow> getCommentsVersionByBlogId(Long blogId) {
+        return commentsVersionReads.execute(blogId,
+                () -> readOnlyTransaction.execute(status -> commentRepository.findVersionByBlogId(blogId)));
+    }
+    
+    /**
+     * A keyset page of a blog's comments, newest first, after the cursor of the previous page
+     * (null for the first); a cursor that does not parse throws IllegalArgumentException
+     */
+    public CursorPage<CommentResponse> getCommentPageByBlogId(Long blogId, String cursor, int limit) {
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        List<Comment> comments = after == null
+                ? commentRepository.findLatestByBlogId(blogId, Limit.of(limit + 1))
+                : commentRepository.findLatestByBlogIdBefore(blogId, after.createdAt(), after.id(), Limit.of(limit + 1));
+        return toCursorPage(comments, limit);
+    }
+    
+    /**
+     * A keyset page of a user's comments, newest first, as for getCommentPageByBlogId
+     */
+    public CursorPage<CommentResponse> getCommentsByUserId(Long userId, String cursor, int limit) {
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        List<Comment> comments = after == null
+                ? commentRepository.findLatestByAuthorId(userId, Limit.of(limit + 1))
+                : commentRepository.findLatestByAuthorIdBefore(userId, after.createdAt(), after.id(), Limit.of(limit + 1));
+        return toCursorPage(comments, limit);
+    }
+    
+    /** One row past the limit tells whether there is a next page */
+    private CursorPage<CommentResponse> toCursorPage(List<Comment> comments, int limit) {
+        boolean hasMore = comments.size() > limit;
+        List<Comment> page = hasMore ? comments.subList(0, limit) : comments;
+        String next = null;
+        if (hasMore) {
+            Comment last = page.get(page.size() - 1);
+            next = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(page.stream().map(this::convertToResponse).collect(Collectors.toList()), next, hasMore);
+    }
+    
+    @Transactional
     public CommentResponse createComment(Long blogId, CommentRequest request, String userEmail) {
         Blog blog = blogRepository.findById(blogId)
                 .orElseThrow(() -> new RuntimeException("Blog not found"));
@@ -47,16 +203,40 @@ public class CommentService {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
+        String parentPath = null;
+        if (request.getParentId() != null) {
+            Comment parent = commentRepository.findById(request.getParentId())
+                    .filter(found -> found.getBlog().getId().equals(blogId))
+                    .orElseThrow(() -> new RuntimeException("Parent comment not found"));
+            parentPath = pathOf(parent);
+            parent.setPath(parentPath);
+            if (CommentPath.depth(parentPath) >= CommentPath.MAX_DEPTH) {
+                throw new RuntimeException("Replies cannot be nested more than " + CommentPath.MAX_DEPTH + " levels deep");
+            }
+        }
+        
         Comment comment = new Comment();
         comment.setContent(request.getContent());
         comment.setBlog(blog);
         comment.setAuthor(user);
+        comment.setParentId(request.getParentId());
         comment.setIsEdited(false);
         
+        // The path ends with the comment's own id, only known once it is inserted
         Comment savedComment = commentRepository.save(comment);
+        savedComment.setPath(CommentPath.of(parentPath, savedComment.getId()));
+        blogRepository.addToCommentCount(blogId, 1);
+        userRepository.addToCommentCount(user.getId(), 1);
+        List<Long> ancestorIds = CommentPath.ancestorIds(savedComment.getPath());
+        if (!ancestorIds.isEmpty()) {
+            commentRepository.addToReplyCounts(ancestorIds, 1);
+        }
+        cacheInvalidationBus.publish(commentKeys(blogId, List.of(savedComment.getId()), ancestorIds));
+        changeLog.commentCreated(savedComment.getId(), blogId);
         return convertToResponse(savedComment);
     }
     
+    @Transactional
     public CommentResponse updateComment(Long commentId, CommentRequest request, String userEmail) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
@@ -72,9 +252,12 @@ public class CommentService {
         comment.setIsEdited(true);
         
         Comment updatedComment = commentRepository.save(comment);
+        cacheInvalidationBus.publish(CacheKeys.comment(commentId), CacheKeys.blogComments(comment.getBlog().getId()));
+        changeLog.commentUpdated(commentId, comment.getBlog().getId());
         return convertToResponse(updatedComment);
     }
     
+    @Transactional
     public void deleteComment(Long commentId, String userEmail) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
@@ -86,14 +269,77 @@ public class CommentService {
             throw new RuntimeException("You can only delete your own comments");
         }
         
+        // Only the comment goes: its replies move up to its parent, the top level for a top-level comment
+        Long blogId = comment.getBlog().getId();
+        String path = pathOf(comment);
+        List<Long> replyIds = new ArrayList<>(commentRepository.findSubtreeIds(blogId, path, CommentPath.subtreeEnd(path)));
+        replyIds.remove(commentId);
         commentRepository.delete(comment);
+        if (!replyIds.isEmpty()) {
+            commentRepository.moveReplies(blogId, path, CommentPath.subtreeEnd(path), CommentPath.parentPath(path),
+                    commentId, comment.getParentId());
+        }
+        blogRepository.addToCommentCount(blogId, -1);
+        userRepository.addToCommentCount(user.getId(), -1);
+        List<Long> ancestorIds = CommentPath.ancestorIds(path);
+        if (!ancestorIds.isEmpty()) {
+            commentRepository.addToReplyCounts(ancestorIds, -1);
+        }
+        List<Long> changedIds = new ArrayList<>(replyIds.size() + 1);
+        changedIds.add(commentId);
+        changedIds.addAll(replyIds);
+        cacheInvalidationBus.publish(commentKeys(blogId, changedIds, ancestorIds));
+        changeLog.commentDeleted(commentId, blogId);
+        replyIds.forEach(id -> changeLog.commentUpdated(id, blogId));
+    }
+    
+    /**
+     * Gives top-level comments written without a path, e.g. bulk-loaded ones, theirs, one range
+     * of path-backfill-batch-size ids per transaction. Comments written here get their path
+     * as they are created, so only ids above the last one checked are walked: the whole table
+     * once after a start, then only what was loaded since. A load still uncommitted when a
+     * higher id was checked waits for the next start; reads fall back to the computed path.
+     */
+    @Scheduled(fixedDelayString = "${app.comments.path-backfill-interval:300000}")
+    public void backfillPaths() {
+        long last = commentRepository.findMaxId().orElse(0L);
+        int backfilled = 0;
+        for (long after = pathsCheckedUpTo; after < last; after += pathBackfillBatchSize) {
+            backfilled += commentRepository.backfillTopLevelPaths(after, Math.min(after + pathBackfillBatchSize, last));
+        }
+        pathsCheckedUpTo = Math.max(pathsCheckedUpTo, last);
+        if (backfilled > 0) {
+            log.info("Backfilled the paths of {} comments", backfilled);
+        }
+    }
+    
+    /**
+     * Several comments with one query, by id
+     */
+    public Map<Long, CommentResponse> getComments(Collection<Long> ids) {
+        return commentRepository.findAllByIdWithAuthor(Set.copyOf(ids)).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toMap(CommentResponse::getId, Function.identity()));
     }
     
     public long getCommentCountByBlogId(Long blogId) {
         return commentRepository.countByBlogId(blogId);
     }
     
-    private CommentResponse convertToResponse(Comment comment) {
+    /** Top-level comments not backfilled yet have no path stored */
+    private static String pathOf(Comment comment) {
+        return comment.getPath() != null ? comment.getPath() : CommentPath.of(null, comment.getId());
+    }
+    
+    private static String[] commentKeys(Long blogId, List<Long> commentIds, List<Long> ancestorIds) {
+        List<String> keys = new ArrayList<>(commentIds.size() + ancestorIds.size() + 1);
+        keys.add(CacheKeys.blogComments(blogId));
+        commentIds.forEach(id -> keys.add(CacheKeys.comment(id)));
+        ancestorIds.forEach(id -> keys.add(CacheKeys.comment(id)));
+        return keys.toArray(String[]::new);
+    }
+    
+    CommentResponse convertToResponse(Comment comment) {
         CommentResponse response = new CommentResponse();
         response.setId(comment.getId());
         response.setContent(comment.getContent());
@@ -103,6 +349,21 @@ public class CommentService {
         response.setIsEdited(comment.getIsEdited());
         response.setCreatedAt(comment.getCreatedAt());
         response.setUpdatedAt(comment.getUpdatedAt());
+        response.setParentId(comment.getParentId());
+        response.setDepth(comment.getPath() != null ? CommentPath.depth(comment.getPath()) : 0);
+        response.setReplyCount(comment.getReplyCount());
         return response;
     }
-}
\ No newline at end of file
+    
+    private CommentResponse convertToResponse(CommentThreadRow row) {
+        return new CommentResponse(row.getId(), row.getContent(), row.getBlogId(), row.getAuthorId(),
+                row.getAuthorFirstName() + " " + row.getAuthorLastName(), row.getIsEdited(), row.getCreatedAt(),
+                row.getUpdatedAt(), row.getParentId(), CommentPath.depth(row.getPath()), row.getReplyCount());
+    }
+    
+    private record CommentPageKey(Long blogId, int page, int size, String sort) {
+    }
+    
+    private record ThreadPageKey(Long blogId, int page, int size, int repliesPerThread) {
+    }
+}
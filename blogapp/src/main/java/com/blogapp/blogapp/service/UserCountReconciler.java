@@ -0,0 +1,76 @@
+package com.blogapp.blogapp.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Repairs users.blog_count and users.comment_count, which BlogService and CommentService keep
+ * on every write, wherever they are missing or have drifted, as CommentCountReconciler does for
+ * blogs and with the same locking: a batch locks its users first, and a blog or comment write
+ * updates its author's counts after inserting or deleting its rows.
+ */
+@Slf4j
+@Component
+public class UserCountReconciler {
+
+    static final String LOCK_SQL = "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ? FOR NO KEY UPDATE";
+    static final String REPAIR_SQL = "UPDATE users u SET blog_count = counted.blogs, comment_count = counted.comments FROM "
+            + "(SELECT id, (SELECT COUNT(*) FROM blogs b WHERE b.author_id = users.id) AS blogs, "
+            + "(SELECT COUNT(*) FROM comments c WHERE c.author_id = users.id) AS comments FROM users "
+            + "WHERE id >= ? AND id <= ?) counted "
+            + "WHERE u.id = counted.id AND (u.blog_count IS DISTINCT FROM counted.blogs "
+            + "OR u.comment_count IS DISTINCT FROM counted.comments)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final int batchSize;
+    private final Counter repaired;
+
+    public UserCountReconciler(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${app.users.count-reconcile-batch-size:1000}") int batchSize,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.repaired = meterRegistry.counter("blogapp.users.counts.repaired");
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.count-reconcile-interval:600000}")
+    public void reconcile() {
+        long after = 0;
+        int total = 0;
+        while (true) {
+            long from = after;
+            Batch batch = writeTransaction.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(LOCK_SQL, Long.class, from, batchSize);
+                if (ids.isEmpty()) {
+                    return new Batch(0, from, 0);
+                }
+                long last = ids.get(ids.size() - 1);
+                return new Batch(ids.size(), last, jdbcTemplate.update(REPAIR_SQL, ids.get(0), last));
+            });
+            total += batch.repaired();
+            after = batch.last();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        repaired.increment(total);
+        if (total > 0) {
+            log.info("Repaired the blog and comment counts of {} users", total);
+        }
+    }
+
+    private record Batch(int size, long last, int repaired) {
+    }
+}
@@ -1,11 +1,26 @@
 package com.blogapp.blogapp.service;
 
+import com.blogapp.blogapp.cache.CacheInvalidationBus;
+import com.blogapp.blogapp.cache.CacheKeys;
 import com.blogapp.blogapp.dto.UserProfileRequest;
 import com.blogapp.blogapp.dto.UserProfileResponse;
 import com.blogapp.blogapp.entity.User;
+import com.blogapp.blogapp.repository.AuthorCount;
+import com.blogapp.blogapp.repository.BlogRepository;
+import com.blogapp.blogapp.repository.CommentRepository;
 import com.blogapp.blogapp.repository.UserRepository;
+import com.blogapp.blogapp.repository.UserVersionRow;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService {
@@ -13,18 +28,47 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private BlogRepository blogRepository;
+    
+    @Autowired
+    private CommentRepository commentRepository;
+    
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+    
     public UserProfileResponse getUserProfile(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        return convertToProfileResponse(user);
+        return convertToProfileResponses(List.of(user)).get(0);
     }
     
     public UserProfileResponse getUserProfileById(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        return convertToProfileResponse(user);
+        return convertToProfileResponses(List.of(user)).get(0);
+    }
+    
+    /**
+     * What a profile depends on, including its counts, to answer conditional requests before reading it
+     */
+    public Optional<UserVersionRow> getUserVersion(String email) {
+        return userRepository.findVersionByEmail(email);
+    }
+    
+    public Optional<UserVersionRow> getUserVersionById(Long userId) {
+        return userRepository.findVersionById(userId);
+    }
+    
+    /**
+     * Several profiles by id, with one query for the users
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, UserProfileResponse> getUserProfiles(Collection<Long> ids) {
+        return convertToProfileResponses(userRepository.findAllById(Set.copyOf(ids))).stream()
+                .collect(Collectors.toMap(UserProfileResponse::getId, Function.identity()));
     }
     
     public UserProfileResponse updateUserProfile(String email, UserProfileRequest request) {
@@ -45,10 +89,29 @@ public class UserService {
         }
         
         User updatedUser = userRepository.save(user);
-        return convertToProfileResponse(updatedUser);
+        cacheInvalidationBus.publish(CacheKeys.user(updatedUser.getId()));
+        return convertToProfileResponses(List.of(updatedUser)).get(0);
     }
     
-    private UserProfileResponse convertToProfileResponse(User user) {
+    /**
+     * Profiles with the counts kept on the user rows; users not counted yet are counted with
+     * two grouped queries instead of loading their blogs and comments
+     */
+    private List<UserProfileResponse> convertToProfileResponses(List<User> users) {
+        Set<Long> uncounted = users.stream()
+                .filter(user -> user.getBlogCount() == null || user.getCommentCount() == null)
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Long> blogCounts = uncounted.isEmpty() ? Map.of() : toMap(blogRepository.countByAuthorIds(uncounted));
+        Map<Long, Long> commentCounts = uncounted.isEmpty() ? Map.of() : toMap(commentRepository.countByAuthorIds(uncounted));
+        return users.stream()
+                .map(user -> convertToProfileResponse(user,
+                        user.getBlogCount() != null ? user.getBlogCount() : blogCounts.getOrDefault(user.getId(), 0L),
+                        user.getCommentCount() != null ? user.getCommentCount() : commentCounts.getOrDefault(user.getId(), 0L)))
+                .toList();
+    }
+    
+    private UserProfileResponse convertToProfileResponse(User user, long blogCount, long commentCount) {
         UserProfileResponse response = new UserProfileResponse();
         response.setId(user.getId());
         response.setEmail(user.getEmail());
@@ -57,8 +120,12 @@ public class UserService {
         response.setBio(user.getBio());
         response.setProfilePicture(user.getProfilePicture());
         response.setCreatedAt(user.getCreatedAt());
-        response.setBlogCount(user.getBlogs() != null ? (long) user.getBlogs().size() : 0L);
-        response.setCommentCount(user.getComments() != null ? (long) user.getComments().size() : 0L);
+        response.setBlogCount(blogCount);
+        response.setCommentCount(commentCount);
         return response;
     }
+    
+    private static Map<Long, Long> toMap(List<AuthorCount> counts) {
+        return counts.stream().collect(Collectors.toMap(AuthorCount::getAuthorId, AuthorCount::getCount));
+    }
 }
\ No newline at end of file
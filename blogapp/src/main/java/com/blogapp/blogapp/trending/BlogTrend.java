@@ -0,0 +1,75 @@
+package com.blogapp.blogapp.trending;
+
+import com.blogapp.blogapp.dto.BlogSummaryResponse;
+
+/**
+ * Views of one blog over the trending window, as a ring of time buckets. Each bucket holds
+ * the decayed weight of the views that fell into it; the score is the sum of the ring.
+ * Callers synchronize on the instance.
+ */
+class BlogTrend {
+
+    private final double[] buckets;
+    private long headBucket;
+    private double score;
+
+    /** Listing data, null until known or after the blog changed */
+    private BlogSummaryResponse summary;
+    private long viewCount;
+
+    BlogTrend(int bucketCount, long currentBucket) {
+        this.buckets = new double[bucketCount];
+        this.headBucket = currentBucket;
+    }
+
+    void add(long bucket, double weight) {
+        advance(bucket);
+        buckets[(int) (headBucket % buckets.length)] += weight;
+        score += weight;
+    }
+
+    /** Drops buckets that slid out of the window; returns false once nothing is left */
+    boolean advance(long bucket) {
+        if (bucket > headBucket) {
+            long expired = Math.min(bucket - headBucket, buckets.length);
+            for (long i = 1; i <= expired; i++) {
+                buckets[(int) ((headBucket + i) % buckets.length)] = 0;
+            }
+            headBucket = bucket;
+            // Summed afresh rather than subtracted, so rounding never leaves an empty ring alive
+            score = 0;
+            for (double weight : buckets) {
+                score += weight;
+            }
+        }
+        return score > 0;
+    }
+
+    void rescale(double factor) {
+        score = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] *= factor;
+            score += buckets[i];
+        }
+    }
+
+    double score() {
+        return score;
+    }
+
+    BlogSummaryResponse summary() {
+        return summary;
+    }
+
+    void summary(BlogSummaryResponse summary) {
+        this.summary = summary;
+    }
+
+    long viewCount() {
+        return viewCount;
+    }
+
+    void viewCount(long viewCount) {
+        this.viewCount = Math.max(this.viewCount, viewCount);
+    }
+}
@@ -0,0 +1,206 @@
+package com.blogapp.blogapp.trending;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.blogapp.blogapp.cache.CacheInvalidationListener;
+import com.blogapp.blogapp.cache.CacheKeys;
+import com.blogapp.blogapp.dto.BlogMapper;
+import com.blogapp.blogapp.dto.BlogResponse;
+import com.blogapp.blogapp.dto.BlogSummaryResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Ranks blogs by recent views, kept entirely in memory on each node.
+ *
+ * <p>A view at time t weighs {@code exp(lambda * (t - landmark))}, so newer views count
+ * more, halving in relative weight every half-life. Because all weights share one landmark,
+ * scores of blogs without new views never change order, and only viewed blogs need to be
+ * re-ranked. Views older than the window drop out when their bucket is rotated away, on
+ * schedule or by the first view of a new bucket, whichever comes first.
+ */
+@Service
+public class TrendingService implements CacheInvalidationListener {
+
+    /** Rebase the landmark before weights get anywhere near overflowing a double */
+    private static final double MAX_EXPONENT = 64;
+
+    private final Map<Long, BlogTrend> trends = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private final int topK;
+    private final int bucketCount;
+    private final long bucketMillis;
+    private final double lambdaPerMilli;
+
+    private volatile TrendingTopK ranking;
+    private volatile long rotatedBucket;
+    private long landmarkMillis;
+
+    public TrendingService(@Value("${app.trending.top-k:100}") int topK,
+                           @Value("${app.trending.half-life-minutes:360}") long halfLifeMinutes,
+                           @Value("${app.trending.window-minutes:1440}") long windowMinutes,
+                           @Value("${app.trending.bucket-minutes:60}") long bucketMinutes,
+                           MeterRegistry meterRegistry) {
+        this.topK = topK;
+        this.bucketMillis = TimeUnit.MINUTES.toMillis(bucketMinutes);
+        this.bucketCount = (int) Math.max(1, windowMinutes / bucketMinutes);
+        this.lambdaPerMilli = Math.log(2) / TimeUnit.MINUTES.toMillis(halfLifeMinutes);
+        this.ranking = new TrendingTopK(topK);
+        this.landmarkMillis = System.currentTimeMillis();
+        this.rotatedBucket = landmarkMillis / bucketMillis;
+        meterRegistry.gaugeMapSize("blogapp.trending.tracked", List.of(), trends);
+    }
+
+    public void recordView(BlogResponse blog) {
+        recordView(blog, System.currentTimeMillis());
+    }
+
+    void recordView(BlogResponse blog, long nowMillis) {
+        recordView(blog.getId(), blog.getViewCount(), blog, nowMillis);
+    }
+
+    /** A view without the blog at hand; its listing data is loaded when it is listed */
+    public void recordView(Long blogId, long viewCount) {
+        recordView(blogId, viewCount, null, System.currentTimeMillis());
+    }
+
+    private void recordView(Long blogId, long viewCount, BlogResponse blog, long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        if (bucket > rotatedBucket) {
+            // Adding to a new bucket expires the oldest one; rotating first expires it for every
+            // blog at once, so scores never fall between rotations and the ranking stays exact
+            rotate(nowMillis);
+        }
+        rotationLock.readLock().lock();
+        try {
+            double weight = Math.exp(lambdaPerMilli * (nowMillis - landmarkMillis));
+            BlogTrend trend = trends.computeIfAbsent(blogId, id -> new BlogTrend(bucketCount, bucket));
+            synchronized (trend) {
+                trend.add(bucket, weight);
+                trend.viewCount(viewCount);
+                if (trend.summary() == null && blog != null) {
+                    trend.summary(BlogMapper.toBlogSummaryResponse(blog));
+                }
+                ranking.offer(blogId, trend.score());
+            }
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+    }
+
+    /** Ids of the top trending blogs, highest first. At most {@code app.trending.top-k} */
+    public List<Long> ranking() {
+        return ranking.ranking();
+    }
+
+    /** Listing data for a trending blog, with its last seen view count */
+    public Optional<BlogSummaryResponse> summary(Long blogId) {
+        BlogTrend trend = trends.get(blogId);
+        if (trend == null) {
+            return Optional.empty();
+        }
+        synchronized (trend) {
+            BlogSummaryResponse summary = trend.summary();
+            return summary == null ? Optional.empty() : Optional.of(BlogMapper.withViewCount(summary, trend.viewCount()));
+        }
+    }
+
+    /** Refills listing data dropped by an invalidation */
+    public void putSummary(BlogSummaryResponse summary) {
+        BlogTrend trend = trends.get(summary.getId());
+        if (trend != null) {
+            synchronized (trend) {
+                trend.summary(summary);
+                trend.viewCount(summary.getViewCount());
+            }
+        }
+    }
+
+    /** Forgets a blog that no longer exists */
+    public void remove(Long blogId) {
+        rotationLock.readLock().lock();
+        try {
+            trends.remove(blogId);
+            ranking.remove(blogId);
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.trending.bucket-minutes:60}", timeUnit = TimeUnit.MINUTES)
+    public void rotate() {
+        rotate(System.currentTimeMillis());
+    }
+
+    /** Expires buckets that left the window and rebuilds the ranking from what is left */
+    void rotate(long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        rotationLock.writeLock().lock();
+        try {
+            double exponent = lambdaPerMilli * (nowMillis - landmarkMillis);
+            double factor = exponent > MAX_EXPONENT ? Math.exp(-exponent) : 1;
+            if (bucket <= rotatedBucket && factor == 1) {
+                // Already rotated into this bucket by a view
+                return;
+            }
+            rotatedBucket = Math.max(rotatedBucket, bucket);
+            if (factor != 1) {
+                landmarkMillis = nowMillis;
+            }
+
+            TrendingTopK rebuilt = new TrendingTopK(topK);
+            trends.entrySet().removeIf(entry -> {
+                BlogTrend trend = entry.getValue();
+                synchronized (trend) {
+                    if (factor != 1) {
+                        trend.rescale(factor);
+                    }
+                    if (!trend.advance(bucket)) {
+                        return true;
+                    }
+                    rebuilt.offer(entry.getKey(), trend.score());
+                    return false;
+                }
+            });
+            ranking = rebuilt;
+        } finally {
+            rotationLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void invalidate(Set<String> keys) {
+        for (String key : keys) {
+            // Summaries carry the comment count
+            String type = CacheKeys.typeOf(key);
+            if (CacheKeys.BLOG.equals(type) || CacheKeys.BLOG_COMMENTS.equals(type)) {
+                Long blogId = CacheKeys.idOf(key);
+                BlogTrend trend = blogId == null ? null : trends.get(blogId);
+                if (trend != null) {
+                    synchronized (trend) {
+                        trend.summary(null);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        trends.values().forEach(trend -> {
+            synchronized (trend) {
+                trend.summary(null);
+            }
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package com.blogapp.blogapp.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The K highest scores, kept as an ordered set so the minimum can be evicted and a member
+ * re-ranked in O(log K). Scores only grow between window rotations, as TrendingService
+ * rotates before the first view of a new bucket expires anything, so offering every updated
+ * score keeps the set exact without rescanning other blogs; each rotation builds a new set.
+ */
+class TrendingTopK {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score)
+            .thenComparing(Entry::blogId, Comparator.reverseOrder());
+
+    private final int capacity;
+    private final TreeSet<Entry> ranked = new TreeSet<>(ORDER);
+    private final Map<Long, Entry> members = new HashMap<>();
+    private List<Long> snapshot = List.of();
+
+    TrendingTopK(int capacity) {
+        this.capacity = capacity;
+    }
+
+    synchronized void offer(long blogId, double score) {
+        Entry current = members.get(blogId);
+        if (current != null) {
+            ranked.remove(current);
+        } else if (members.size() >= capacity) {
+            Entry lowest = ranked.first();
+            if (ORDER.compare(new Entry(blogId, score), lowest) <= 0) {
+                return;
+            }
+            ranked.pollFirst();
+            members.remove(lowest.blogId());
+        }
+        Entry entry = new Entry(blogId, score);
+        ranked.add(entry);
+        members.put(blogId, entry);
+        snapshot = null;
+    }
+
+    synchronized void remove(long blogId) {
+        Entry entry = members.remove(blogId);
+        if (entry != null) {
+            ranked.remove(entry);
+            snapshot = null;
+        }
+    }
+
+    /** Blog ids from highest to lowest score */
+    synchronized List<Long> ranking() {
+        if (snapshot == null) {
+            List<Long> ids = new ArrayList<>(ranked.size());
+            ranked.descendingSet().forEach(entry -> ids.add(entry.blogId()));
+            snapshot = List.copyOf(ids);
+        }
+        return snapshot;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    private record Entry(long blogId, double score) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.blogapp.blogapp.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Materialized paths of comment threads: the ids of a comment's ancestors and its own, each
+ * as 12 zero-padded hex digits. Compared byte by byte, the paths of a thread sort in reading
+ * order with every reply right after its parent, so a comment and all its replies are the
+ * single key range [path, subtreeEnd(path)) of an index on the path.
+ */
+public final class CommentPath {
+
+    public static final int SEGMENT_LENGTH = 12;
+
+    /** Deepest reply below a top-level comment, so that paths fit their column */
+    public static final int MAX_DEPTH = 20;
+
+    public static final int MAX_LENGTH = (MAX_DEPTH + 1) * SEGMENT_LENGTH;
+
+    /** The path of a top-level comment in SQL, for rows written without one */
+    public static final String TOP_LEVEL_SQL = "lpad(to_hex(id), " + SEGMENT_LENGTH + ", '0')";
+
+    private static final String ZEROS = "0".repeat(SEGMENT_LENGTH);
+
+    private CommentPath() {
+    }
+
+    /** The path of a comment, below the given parent path or at the top level when it is null */
+    public static String of(String parentPath, long id) {
+        String hex = Long.toHexString(id);
+        if (hex.length() > SEGMENT_LENGTH) {
+            throw new IllegalArgumentException("Comment id does not fit a path segment: " + id);
+        }
+        String segment = ZEROS.substring(hex.length()) + hex;
+        return parentPath == null ? segment : parentPath + segment;
+    }
+
+    /** 0 for a top-level comment */
+    public static int depth(String path) {
+        return path.length() / SEGMENT_LENGTH - 1;
+    }
+
+    /** Just above every path that starts with the given one: '~' sorts after every hex digit */
+    public static String subtreeEnd(String path) {
+        return path + "~";
+    }
+
+    /** The path of the parent, empty for a top-level comment */
+    public static String parentPath(String path) {
+        return path.substring(0, path.length() - SEGMENT_LENGTH);
+    }
+
+    /** Ids of the ancestors, the top-level comment first */
+    public static List<Long> ancestorIds(String path) {
+        List<Long> ids = new ArrayList<>(depth(path));
+        for (int start = 0; start + SEGMENT_LENGTH < path.length(); start += SEGMENT_LENGTH) {
+            ids.add(Long.parseLong(path, start, start + SEGMENT_LENGTH, 16));
+        }
+        return ids;
+    }
+}
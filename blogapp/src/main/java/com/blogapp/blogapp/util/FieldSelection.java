@@ -0,0 +1,51 @@
+package com.blogapp.blogapp.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The fields a client asked for with {@code ?fields=id,title,author.firstName}. Selecting a
+ * field selects everything below it, and the objects on the way to a selected field are kept
+ * so it has somewhere to live.
+ */
+public final class FieldSelection {
+
+    private final Set<String> selected = new HashSet<>();
+    private final Set<String> ancestors = new HashSet<>();
+
+    private FieldSelection() {
+    }
+
+    /** Returns null for a missing or blank parameter, meaning every field */
+    public static FieldSelection parse(String fields) {
+        if (fields == null) {
+            return null;
+        }
+        FieldSelection selection = new FieldSelection();
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .forEach(selection::add);
+        return selection.selected.isEmpty() ? null : selection;
+    }
+
+    public boolean includes(String path) {
+        if (selected.contains(path) || ancestors.contains(path)) {
+            return true;
+        }
+        for (int dot = path.lastIndexOf('.'); dot > 0; dot = path.lastIndexOf('.', dot - 1)) {
+            if (selected.contains(path.substring(0, dot))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(String field) {
+        selected.add(field);
+        for (int dot = field.indexOf('.'); dot > 0; dot = field.indexOf('.', dot + 1)) {
+            ancestors.add(field.substring(0, dot));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.blogapp.blogapp.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by creation time, newest first: the creation time and id of the
+ * last row a client has. The next page is the rows strictly before it in (createdAt, id) order,
+ * read from an index on those columns, so a page costs the same however deep it is and rows
+ * added meanwhile neither shift nor repeat it. Clients get it as an opaque string.
+ */
+public record KeysetCursor(LocalDateTime createdAt, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode() {
+        // LocalDateTime.toString keeps the full precision of the column
+        return ENCODER.encodeToString((createdAt + "_" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Throws IllegalArgumentException for a string that is not a cursor */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String decoded = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('_');
+            return new KeysetCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.blogapp.blogapp.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * Validators for a conditional GET, computed from what a response depends on (update
+ * timestamps, row counts) instead of from the response, so a 304 is decided before the
+ * response is built.
+ *
+ * <p>A weak version stands for responses that also carry live counters, such as view counts,
+ * which the parts leave out on purpose.
+ *
+ * <p>Only the ETag comes from the parts. Last-Modified is sent only when the caller names
+ * timestamps that move with every part, counts included: a comment deleted or added changes
+ * a count without touching any updated_at, and If-Modified-Since would still get a 304.
+ */
+public record ResourceVersion(String tag, long lastModified, boolean weak) {
+
+    public static ResourceVersion strong(Object... parts) {
+        return of(false, parts);
+    }
+
+    public static ResourceVersion weak(Object... parts) {
+        return of(true, parts);
+    }
+
+    private static ResourceVersion of(boolean weak, Object... parts) {
+        String joined = Arrays.stream(parts).map(Objects::toString).collect(Collectors.joining("|"));
+        return new ResourceVersion(DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)), -1, weak);
+    }
+
+    /** The same version, last modified at the latest of timestamps that every change advances; nulls are skipped */
+    public ResourceVersion lastModifiedAt(LocalDateTime... times) {
+        long latest = Arrays.stream(times)
+                .filter(Objects::nonNull)
+                .mapToLong(time -> time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .max()
+                .orElse(-1);
+        return new ResourceVersion(tag, latest, weak);
+    }
+
+    /** ETag of one encoding of the response; the variant is empty for JSON, e.g. "cbor" otherwise */
+    public String etag(String variant) {
+        String value = variant.isEmpty() ? tag : tag + "-" + variant;
+        return (weak ? "W/\"" : "\"") + value + "\"";
+    }
+}
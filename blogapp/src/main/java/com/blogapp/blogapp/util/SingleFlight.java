@@ -0,0 +1,84 @@
+package com.blogapp.blogapp.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller runs the loader on
+ * its own thread, everyone arriving while it runs waits for and shares its result or its
+ * exception. Nothing is cached once the call completes.
+ *
+ * <p>Waiters give up after the timeout and drop the stuck call, so the next request for
+ * that key starts a fresh one. Shared values must be safe to hand to several threads,
+ * i.e. DTOs rather than managed entities.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final String name;
+    private final Duration timeout;
+    private final Counter leaderCalls;
+    private final Counter sharedCalls;
+
+    public SingleFlight(String name, Duration timeout, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.timeout = timeout;
+        this.leaderCalls = meterRegistry.counter("blogapp.singleflight.calls", "name", name, "result", "leader");
+        this.sharedCalls = meterRegistry.counter("blogapp.singleflight.calls", "name", name, "result", "shared");
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            sharedCalls.increment();
+            return await(key, existing);
+        }
+
+        leaderCalls.increment();
+        try {
+            V value = loader.get();
+            inFlight.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** Number of keys with a call currently running */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(K key, CompletableFuture<V> flight) {
+        try {
+            return flight.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            inFlight.remove(key, flight);
+            throw new RuntimeException("Timed out after " + timeout.toMillis() + " ms waiting for " + name + " " + key, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + name + " " + key, e);
+        }
+    }
+}
@@ -10,6 +10,8 @@ CREATE TABLE IF NOT EXISTS users (
     last_name VARCHAR(255) NOT NULL,
     profile_picture VARCHAR(500),
     bio TEXT,
+    blog_count BIGINT,
+    comment_count BIGINT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
@@ -20,6 +22,7 @@ CREATE TABLE IF NOT EXISTS blogs (
     title VARCHAR(255) NOT NULL,
     content TEXT NOT NULL,
     view_count BIGINT DEFAULT 0,
+    comment_count BIGINT,
     author_id BIGINT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -34,6 +37,11 @@ CREATE TABLE IF NOT EXISTS comments (
     content TEXT NOT NULL,
     blog_id BIGINT NOT NULL,
     author_id BIGINT NOT NULL,
+    -- Replies: the parent, the ids from the top-level comment down as 12 hex digits each
+    -- (sorted byte by byte, so a thread is one index range) and the replies below at any depth
+    parent_id BIGINT,
+    path VARCHAR(252) COLLATE "C",
+    reply_count INTEGER NOT NULL DEFAULT 0,
     is_edited BOOLEAN DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -54,13 +62,58 @@ CREATE TABLE IF NOT EXISTS blog_images (
     CONSTRAINT fk_blog_image_blog FOREIGN KEY (blog_id) REFERENCES blogs(id) ON DELETE CASCADE
 );
 
+-- HyperLogLog sketches of distinct viewers per blog
+CREATE TABLE IF NOT EXISTS blog_view_sketches (
+    blog_id BIGINT PRIMARY KEY,
+    registers BYTEA NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_blog_view_sketch_blog FOREIGN KEY (blog_id) REFERENCES blogs(id) ON DELETE CASCADE
+);
+
+-- MinHash signatures of blog content, for related posts
+CREATE TABLE IF NOT EXISTS blog_signatures (
+    blog_id BIGINT PRIMARY KEY,
+    signature BYTEA NOT NULL,
+    CONSTRAINT fk_blog_signature_blog FOREIGN KEY (blog_id) REFERENCES blogs(id) ON DELETE CASCADE
+);
+
+-- Views per blog and day, week (starting Monday) or month
+CREATE TABLE IF NOT EXISTS blog_view_rollups (
+    blog_id BIGINT NOT NULL,
+    granularity VARCHAR(5) NOT NULL,
+    period_start DATE NOT NULL,
+    views BIGINT NOT NULL,
+    PRIMARY KEY (blog_id, granularity, period_start),
+    CONSTRAINT fk_blog_view_rollup_blog FOREIGN KEY (blog_id) REFERENCES blogs(id) ON DELETE CASCADE
+);
+
+-- Latest change of every blog and comment, for the change feed; deletes stay as tombstones
+CREATE TABLE IF NOT EXISTS change_log (
+    entity_type VARCHAR(7) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    seq BIGINT NOT NULL,
+    action VARCHAR(7) NOT NULL,
+    blog_id BIGINT,
+    changed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (entity_type, entity_id)
+);
+
 -- Create indexes for better performance
+-- Keep in sync with the @Table(indexes) declarations, which is what ddl-auto=update applies;
+-- QueryPlanRegressionTest (mvn test -Pquery-plan) checks the repository queries use them
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
-CREATE INDEX IF NOT EXISTS idx_blogs_author_id ON blogs(author_id);
+CREATE INDEX IF NOT EXISTS idx_users_updated_at ON users(updated_at);
+CREATE INDEX IF NOT EXISTS idx_blogs_author_created_at ON blogs(author_id, created_at DESC);
 CREATE INDEX IF NOT EXISTS idx_blogs_created_at ON blogs(created_at DESC);
 CREATE INDEX IF NOT EXISTS idx_blogs_view_count ON blogs(view_count DESC);
+CREATE INDEX IF NOT EXISTS idx_blogs_title ON blogs(title);
 -- Tag index removed
-CREATE INDEX IF NOT EXISTS idx_comments_blog_id ON comments(blog_id);
-CREATE INDEX IF NOT EXISTS idx_comments_author_id ON comments(author_id);
-CREATE INDEX IF NOT EXISTS idx_comments_created_at ON comments(created_at DESC);
-CREATE INDEX IF NOT EXISTS idx_blog_images_blog_id ON blog_images(blog_id);
\ No newline at end of file
+-- The id breaks ties between comments created at the same time, for keyset pages
+CREATE INDEX IF NOT EXISTS idx_comments_blog_created_at_id ON comments(blog_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_comments_author_created_at_id ON comments(author_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_comments_blog_path ON comments(blog_id, path);
+CREATE INDEX IF NOT EXISTS idx_comments_blog_parent ON comments(blog_id, parent_id, id);
+CREATE INDEX IF NOT EXISTS idx_blog_images_blog_id ON blog_images(blog_id);
+CREATE INDEX IF NOT EXISTS idx_blog_view_rollups_granularity_period ON blog_view_rollups(granularity, period_start);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_change_log_seq ON change_log(seq);
+CREATE INDEX IF NOT EXISTS idx_change_log_blog_seq ON change_log(blog_id, seq);
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.blogapp.blogapp.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.blogapp.blogapp.entity.BlogViewRollup.Granularity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ViewAnalyticsServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ViewAnalyticsService analytics = new ViewAnalyticsService(jdbcTemplate,
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesOneRowPerBlogAndDay() {
+        analytics.recordView(1L);
+        analytics.recordView(1L);
+        assertEquals(3, analytics.recordView(1L));
+        analytics.recordView(2L);
+
+        analytics.flush();
+
+        ArgumentCaptor<List<Object[]>> viewCounts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE blogs SET view_count = view_count + ? WHERE id = ?"), viewCounts.capture());
+        assertEquals(List.of(List.of(3L, 1L), List.of(1L, 2L)), viewCounts.getValue().stream().map(List::of).toList());
+        // Counting starts over once the buffer is written
+        assertEquals(1, analytics.recordView(1L));
+    }
+
+    @Test
+    void failedFlushKeepsTheViews() {
+        when(jdbcTemplate.batchUpdate(eq("UPDATE blogs SET view_count = view_count + ? WHERE id = ?"), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+        analytics.recordView(1L);
+        analytics.recordView(1L);
+
+        analytics.flush();
+
+        assertEquals(3, analytics.recordView(1L));
+    }
+
+    @Test
+    void granularityFollowsTheRange() {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+
+        assertEquals(Granularity.DAY, ViewAnalyticsService.granularityFor(from, from.plusDays(30)));
+        assertEquals(Granularity.WEEK, ViewAnalyticsService.granularityFor(from, from.plusMonths(6)));
+        assertEquals(Granularity.MONTH, ViewAnalyticsService.granularityFor(from, from.plusYears(3)));
+        // 2025-01-01 is a Wednesday
+        assertEquals(LocalDate.of(2024, 12, 30), ViewAnalyticsService.periodStart(Granularity.WEEK, from));
+    }
+}
@@ -0,0 +1,78 @@
+package com.blogapp.blogapp.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CacheInvalidationBusTest {
+
+    private final List<Set<String>> received = new ArrayList<>();
+
+    private final CacheInvalidationListener listener = new CacheInvalidationListener() {
+        @Override
+        public void invalidate(Set<String> keys) {
+            received.add(keys);
+        }
+
+        @Override
+        public void invalidateAll() {
+        }
+    };
+
+    private final CacheInvalidationBus bus = new CacheInvalidationBus(
+            Mockito.mock(JdbcTemplate.class),
+            new StaticListableBeanFactory(Map.of("listener", listener)).getBeanProvider(CacheInvalidationListener.class),
+            new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void transactionalKeysAreDispatchedOnceAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        bus.publish(CacheKeys.blog(1L));
+        bus.publish(CacheKeys.blog(1L), CacheKeys.blogComments(1L));
+        assertTrue(received.isEmpty());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(List.of(Set.of("blog:1", "blog-comments:1")), received);
+    }
+
+    @Test
+    void payloadsStayBelowNotifyLimit() {
+        List<String> keys = IntStream.range(0, 2_000).mapToObj(i -> CacheKeys.comment((long) i)).toList();
+
+        List<String> payloads = CacheInvalidationBus.payloads("node", keys);
+
+        assertTrue(payloads.size() > 1);
+        payloads.forEach(payload -> assertTrue(payload.length() < 8_000));
+        List<String> decoded = payloads.stream()
+                .flatMap(payload -> List.of(payload.substring("node|".length()).split(",")).stream())
+                .collect(Collectors.toList());
+        assertEquals(keys, decoded);
+    }
+}
@@ -0,0 +1,78 @@
+package com.blogapp.blogapp.changes;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.blogapp.blogapp.entity.ChangeLogEntry.Action;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ChangeLogTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final ChangeLog changeLog = new ChangeLog(jdbcTemplate, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesOneRowPerEntityAfterTheLockBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        when(jdbcTemplate.queryForObject(ChangeLog.HEAD_SQL, Long.class)).thenReturn(41L);
+
+        changeLog.blogCreated(7L);
+        changeLog.commentCreated(3L, 7L);
+        changeLog.blogUpdated(7L);
+        changeLog.commentDeleted(3L, 7L);
+        changeLog.blogUpdated(8L);
+        verify(jdbcTemplate, never()).batchUpdate(eq(ChangeLog.UPSERT_SQL), anyList());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).query(eq(ChangeLog.LOCK_SQL), any(RowCallbackHandler.class), eq(ChangeLog.LOCK_KEY));
+        order.verify(jdbcTemplate).queryForObject(ChangeLog.HEAD_SQL, Long.class);
+        order.verify(jdbcTemplate).batchUpdate(eq(ChangeLog.UPSERT_SQL), rows.capture());
+        assertEquals(3, rows.getValue().size());
+        assertArrayEquals(new Object[] {"BLOG", 7L, 42L, "CREATED", null}, rows.getValue().get(0));
+        assertArrayEquals(new Object[] {"COMMENT", 3L, 43L, "DELETED", 7L}, rows.getValue().get(1));
+        assertArrayEquals(new Object[] {"BLOG", 8L, 44L, "UPDATED", null}, rows.getValue().get(2));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    @Test
+    void createdStaysCreatedUntilDeleted() {
+        assertEquals(Action.CREATED, ChangeLog.merge(Action.CREATED, Action.UPDATED));
+        assertEquals(Action.DELETED, ChangeLog.merge(Action.CREATED, Action.DELETED));
+        assertEquals(Action.DELETED, ChangeLog.merge(Action.UPDATED, Action.DELETED));
+        assertEquals(Action.UPDATED, ChangeLog.merge(Action.UPDATED, Action.UPDATED));
+    }
+}
@@ -0,0 +1,69 @@
+package com.blogapp.blogapp.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.blogapp.blogapp.dto.CommentResponse;
+import com.blogapp.blogapp.dto.PageResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BinaryEncodingConfigTest {
+
+    private final BinaryEncodingConfig config = new BinaryEncodingConfig();
+
+    private final PageResponse<CommentResponse> page = PageResponse.of(new PageImpl<>(
+            List.of(new CommentResponse(1L, "First", 7L, 2L, "Ada Lovelace", false,
+                    LocalDateTime.of(2025, 1, 1, 12, 30), null, null, 0, 0)),
+            PageRequest.of(0, 10), 1));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void binaryFormatsRoundTripThePageEnvelope() throws Exception {
+        ObjectMapper cbor = config.cborHttpMessageConverter(builder()).getObjectMapper();
+        ObjectMapper smile = config.smileHttpMessageConverter(builder()).getObjectMapper();
+        byte[] json = builder().build().writeValueAsBytes(page);
+
+        for (ObjectMapper mapper : List.of(cbor, smile)) {
+            byte[] encoded = mapper.writeValueAsBytes(page);
+
+            assertTrue(encoded.length < json.length);
+            assertEquals(page, mapper.readValue(encoded, new TypeReference<PageResponse<CommentResponse>>() { }));
+        }
+    }
+
+    @Test
+    void binaryFormatsHonourSparseFields() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter(SparseFieldsConfig.FIELDS_PARAMETER, "id,content");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        ObjectMapper cbor = config.cborHttpMessageConverter(builder()).getObjectMapper();
+        PageResponse<CommentResponse> decoded = cbor.readValue(cbor.writeValueAsBytes(page),
+                new TypeReference<PageResponse<CommentResponse>>() { });
+
+        assertEquals(new CommentResponse(1L, "First", null, null, null, null, null, null, null, null, null), decoded.getContent().get(0));
+        assertEquals(1, decoded.getTotalElements());
+    }
+
+    /** Stand-in for the builder Spring Boot injects, with the application's modules */
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json().modulesToInstall(new SparseFieldsConfig().sparseFieldsModule());
+    }
+}
@@ -0,0 +1,68 @@
+package com.blogapp.blogapp.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.blogapp.blogapp.dto.BlogResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+class SparseFieldsConfigTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new SparseFieldsConfig().sparseFieldsModule())
+            .findAndAddModules()
+            .build();
+
+    private final BlogResponse blog = new BlogResponse(1L, "Title", "Long content", List.of(), 5L, null, 3L,
+            new BlogResponse.AuthorInfo(2L, "a@example.com", "Ada", "Lovelace"),
+            LocalDateTime.of(2025, 1, 1, 0, 0), null);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void writesOnlySelectedFieldsAtAnyDepth() throws Exception {
+        request("id, title,author.firstName");
+
+        // Paths start at the outermost response object, not at the page around it
+        assertEquals("{\"content\":[{\"id\":1,\"title\":\"Title\",\"author\":{\"firstName\":\"Ada\"}}]}",
+                objectMapper.writeValueAsString(Map.of("content", List.of(blog))));
+    }
+
+    @Test
+    void selectingAnObjectSelectsAllOfIt() throws Exception {
+        request("author");
+
+        assertEquals("{\"author\":{\"id\":2,\"email\":\"a@example.com\",\"firstName\":\"Ada\",\"lastName\":\"Lovelace\"}}",
+                objectMapper.writeValueAsString(blog));
+    }
+
+    @Test
+    void everythingWithoutTheParameter() throws Exception {
+        request(null);
+
+        ObjectMapper plain = JsonMapper.builder().findAndAddModules().build();
+
+        assertEquals(plain.writeValueAsString(blog), objectMapper.writeValueAsString(blog));
+    }
+
+    private static void request(String fields) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (fields != null) {
+            request.setParameter(SparseFieldsConfig.FIELDS_PARAMETER, fields);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
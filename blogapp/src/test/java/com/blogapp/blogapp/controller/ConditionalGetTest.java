@@ -0,0 +1,90 @@
+package com.blogapp.blogapp.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.blogapp.blogapp.util.ResourceVersion;
+
+class ConditionalGetTest {
+
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_000);
+
+    private final ResourceVersion version = ResourceVersion.strong(7L, 3L, UPDATED, LocalDateTime.of(2025, 1, 1, 0, 0))
+            .lastModifiedAt(UPDATED, LocalDateTime.of(2025, 1, 1, 0, 0));
+
+    @Test
+    void sendsValidatorsWithTheFullResponse() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(ConditionalGet.notModified(webRequest(new MockHttpServletRequest("GET", "/"), response),
+                version, ConditionalGet.PUBLIC));
+
+        assertEquals(version.etag(""), response.getHeader("ETag"));
+        assertEquals(version.lastModified() / 1000 * 1000, response.getDateHeader("Last-Modified"));
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void sendsNoLastModifiedUnlessTimestampsCoverTheVersion() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ConditionalGet.notModified(webRequest(new MockHttpServletRequest("GET", "/"), response),
+                ResourceVersion.strong(7L, 3L, UPDATED), ConditionalGet.PUBLIC);
+
+        assertNotNull(response.getHeader("ETag"));
+        assertNull(response.getHeader("Last-Modified"));
+    }
+
+    @Test
+    void answersRevalidationWithNotModified() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", version.etag(""));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(ConditionalGet.notModified(webRequest(request, response), version, ConditionalGet.PUBLIC));
+        assertEquals(304, response.getStatus());
+
+        // Any change to a part is a new version
+        MockHttpServletRequest afterDelete = new MockHttpServletRequest("GET", "/");
+        afterDelete.addHeader("If-None-Match", version.etag(""));
+        assertFalse(ConditionalGet.notModified(webRequest(afterDelete, new MockHttpServletResponse()),
+                ResourceVersion.strong(7L, 2L, UPDATED, LocalDateTime.of(2025, 1, 1, 0, 0)), ConditionalGet.PUBLIC));
+    }
+
+    @Test
+    void binaryEncodingsHaveTheirOwnETags() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Accept", "application/cbor");
+        request.addHeader("If-None-Match", version.etag(""));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(ConditionalGet.notModified(webRequest(request, response), version, ConditionalGet.PUBLIC));
+        assertNotEquals(version.etag(""), response.getHeader("ETag"));
+    }
+
+    @Test
+    void weakVersionsMatchWeakly() {
+        ResourceVersion weak = ResourceVersion.weak(7L, UPDATED);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", weak.etag(""));
+
+        assertTrue(weak.etag("").startsWith("W/\""));
+        assertTrue(ConditionalGet.notModified(webRequest(request, new MockHttpServletResponse()), weak, ConditionalGet.PUBLIC));
+    }
+
+    private static ServletWebRequest webRequest(MockHttpServletRequest request, MockHttpServletResponse response) {
+        return new ServletWebRequest(request, response);
+    }
+}
@@ -0,0 +1,110 @@
+package com.blogapp.blogapp.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final DataSource primaryPool = mock(DataSource.class);
+    private final DataSource replicaPool = mock(DataSource.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReplicaDataSource replica;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primaryPool.getConnection()).thenReturn(primaryConnection);
+        when(replicaPool.getConnection()).thenReturn(replicaConnection);
+        replica = new ReplicaDataSource("replica-0", replicaPool);
+        replica.markUp(0);
+        dataSource = new ReplicaRoutingDataSource(
+                primaryPool, List.of(replica), new ReadYourWritesTracker(60_000), meterRegistry);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseHealthyReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(replicaConnection, dataSource.getConnection());
+
+        replica.markDown(10_000);
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void writesUsePrimary() throws SQLException {
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void refusedReplicaConnectionFallsBackToPrimary() throws SQLException {
+        when(replicaPool.getConnection()).thenThrow(new SQLException("connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertFalse(replica.isHealthy());
+    }
+
+    @Test
+    void readsStayOnPrimaryAfterOwnWrite() throws SQLException {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "author@example.com", null, AuthorityUtils.createAuthorityList("USER")));
+
+        dataSource.getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        SecurityContextHolder.clearContext();
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void explicitCredentialsUsePrimaryBehindTheLazyProxy() throws SQLException {
+        Connection reportingConnection = mock(Connection.class);
+        when(primaryPool.getConnection("reporting", "secret")).thenReturn(reportingConnection);
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(dataSource);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (Connection connection = proxy.getConnection("reporting", "secret")) {
+            connection.createStatement();
+        }
+
+        verify(reportingConnection).createStatement();
+        assertEquals(1, meterRegistry.counter("blogapp.datasource.connections",
+                "target", "primary", "reason", "explicit-credentials").count());
+    }
+}
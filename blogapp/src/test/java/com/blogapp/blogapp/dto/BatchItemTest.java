@@ -0,0 +1,22 @@
+package com.blogapp.blogapp.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class BatchItemTest {
+
+    @Test
+    void keepsRequestOrderAndMarksMissingIds() {
+        List<BatchItem<String>> items = BatchItem.inRequestOrder(List.of(3L, 1L, 9L, 3L), Map.of(1L, "one", 3L, "three"));
+
+        assertEquals(List.of(
+                new BatchItem<>(3L, true, "three"),
+                new BatchItem<>(1L, true, "one"),
+                new BatchItem<>(9L, false, null),
+                new BatchItem<>(3L, true, "three")), items);
+    }
+}
@@ -0,0 +1,146 @@
+package com.blogapp.blogapp.feed;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.TaskScheduler;
+
+import com.blogapp.blogapp.cache.CacheKeys;
+import com.blogapp.blogapp.entity.Blog;
+import com.blogapp.blogapp.entity.User;
+import com.blogapp.blogapp.service.BlogService;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FeedPageFilterTest {
+
+    private final BlogService blogService = mock(BlogService.class);
+
+    // 2 pages of 10
+    private final FeedPageCache cache = new FeedPageCache(blogService, JsonMapper.builder().findAndAddModules().build(),
+            mock(TaskScheduler.class), 2, 10, new SimpleMeterRegistry());
+
+    private final FeedPageFilter filter = new FeedPageFilter(cache);
+
+    FeedPageFilterTest() {
+        User author = new User();
+        author.setId(1L);
+        author.setFirstName("Ada");
+        List<Blog> blogs = LongStream.rangeClosed(1, 15).mapToObj(id -> {
+            Blog blog = new Blog();
+            blog.setId(id);
+            blog.setTitle("Post " + id);
+            blog.setContent("Content of post " + id);
+            blog.setViewCount(id);
+            blog.setAuthor(author);
+            blog.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+            return blog;
+        }).toList();
+        when(blogService.getAllBlogs(any(Pageable.class), anyString()))
+                .thenAnswer(invocation -> new PageImpl<>(blogs, invocation.getArgument(0), 15));
+        when(blogService.withCommentCounts(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        cache.rebuild();
+    }
+
+    @Test
+    void servesCachedPagesGzippedWithTheirETag() throws Exception {
+        MockHttpServletResponse response = get("/api/blogs", "page=1&sortBy=popularity", "gzip, deflate");
+
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        FeedPageCache.FeedPage page = cache.get("popularity", 1);
+        assertArrayEquals(page.gzip(), response.getContentAsByteArray());
+        assertEquals(page.gzipEtag(), response.getHeader("ETag"));
+        String json = new String(page.json());
+        assertTrue(json.contains("\"title\":\"Post 11\"") && json.contains("\"totalElements\":15,\"totalPages\":2"));
+        assertFalse(json.contains("\"title\":\"Post 10\""));
+
+        MockHttpServletRequest revalidation = request("/api/blogs", "page=1&sortBy=popularity");
+        revalidation.addHeader("If-None-Match", page.gzipEtag());
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        filter.doFilter(revalidation, notModified, new MockFilterChain());
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentLength());
+    }
+
+    @Test
+    void otherRequestsReachTheController() throws Exception {
+        assertReachesController(get("/api/blogs", "search=spring", null));
+        assertReachesController(get("/api/blogs", "fields=id", null));
+        assertReachesController(get("/api/blogs", "size=50", null));
+        assertReachesController(get("/api/blogs", "sortBy=trending", null));
+        assertReachesController(get("/api/blogs", "page=2", null));
+
+        MockHttpServletRequest cbor = request("/api/blogs", "");
+        cbor.addHeader("Accept", "application/cbor");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(cbor, response, new MockFilterChain());
+        assertReachesController(response);
+    }
+
+    @Test
+    void changesDropThePagesUntilTheRebuild() throws Exception {
+        cache.invalidate(Set.of(CacheKeys.blog(3L)));
+
+        assertNull(cache.get("date", 0));
+        assertReachesController(get("/api/blogs", "", null));
+
+        cache.rebuild();
+        assertNotNull(cache.get("date", 0));
+    }
+
+    @Test
+    void parsesAcceptHeaders() {
+        assertTrue(FeedPageFilter.acceptsJson("application/json, text/plain, */*"));
+        assertFalse(FeedPageFilter.acceptsJson("application/x-jackson-smile"));
+        assertTrue(FeedPageFilter.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertFalse(FeedPageFilter.acceptsGzip("gzip;q=0, identity"));
+    }
+
+    private MockHttpServletResponse get(String uri, String query, String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = request(uri, query);
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri, String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        for (String parameter : query.split("&")) {
+            if (!parameter.isEmpty()) {
+                String[] nameAndValue = parameter.split("=");
+                request.addParameter(nameAndValue[0], nameAndValue[1]);
+            }
+        }
+        return request;
+    }
+
+    /** MockFilterChain leaves the response untouched, unlike the filter */
+    private static void assertReachesController(MockHttpServletResponse response) {
+        assertNull(response.getHeader("ETag"));
+    }
+}
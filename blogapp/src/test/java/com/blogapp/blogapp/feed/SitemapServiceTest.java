@@ -0,0 +1,95 @@
+package com.blogapp.blogapp.feed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.w3c.dom.Document;
+
+import com.blogapp.blogapp.cache.CacheKeys;
+
+class SitemapServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    // Parts of 10 posts, read 2 at a time
+    private final SitemapService sitemapService = new SitemapService(jdbcTemplate, mock(PlatformTransactionManager.class), 10, 2,
+            "https://blog.example");
+
+    @Test
+    void streamsAPartInKeysetBatches() throws Exception {
+        List<Long> ids = List.of(11L, 12L, 14L, 15L, 19L);
+        doAnswer(invocation -> {
+            long after = invocation.getArgument(2);
+            long last = invocation.getArgument(3);
+            int limit = invocation.getArgument(4);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Long id : ids.stream().filter(id -> id > after && id <= last).limit(limit).toList()) {
+                ResultSet row = mock(ResultSet.class);
+                when(row.getLong("id")).thenReturn(id);
+                when(row.getTimestamp("last_modified")).thenReturn(Timestamp.valueOf(LocalDateTime.of(2025, 4, 1, 8, 30)));
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any(), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sitemapService.writePart(1, out);
+
+        Document urlset = parse(out.toByteArray());
+        assertEquals(5, urlset.getElementsByTagNameNS(SitemapService.NAMESPACE, "url").getLength());
+        assertEquals("https://blog.example/blog/19",
+                urlset.getElementsByTagNameNS(SitemapService.NAMESPACE, "loc").item(4).getTextContent());
+        // 2 full batches, then a short one
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(10L), eq(20L), eq(2));
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(12L), eq(20L), eq(2));
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(15L), eq(20L), eq(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsThePartsUntilABlogChanges() throws Exception {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(10)))
+                .thenReturn(List.of(new SitemapService.Part(0, 10, LocalDateTime.of(2025, 4, 1, 8, 30))));
+
+        sitemapService.getParts();
+        sitemapService.getPart(0);
+        sitemapService.invalidate(Set.of(CacheKeys.comment(1L)));
+        sitemapService.getParts();
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), eq(10));
+
+        sitemapService.invalidate(Set.of(CacheKeys.blog(1L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sitemapService.writeIndex(out, "https://api.example/sitemap-");
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), eq(10));
+        assertEquals("https://api.example/sitemap-0.xml",
+                parse(out.toByteArray()).getElementsByTagNameNS(SitemapService.NAMESPACE, "loc").item(0).getTextContent());
+    }
+
+    private static Document parse(byte[] xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+    }
+}
@@ -0,0 +1,105 @@
+package com.blogapp.blogapp.feed;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.blogapp.blogapp.feed.SyndicationFeedService.Format;
+import com.blogapp.blogapp.repository.BlogSummaryRow;
+
+class SyndicationFeedWriterTest {
+
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+
+    private final List<BlogSummaryRow> rows = List.of(
+            row(2L, "Tags & <angles>", "Ada", "x".repeat(201), LocalDateTime.of(2025, 3, 2, 9, 0), LocalDateTime.of(2025, 3, 5, 12, 0)),
+            row(1L, "Bell\u0007 in title", "Alan", "Short", LocalDateTime.of(2025, 3, 1, 9, 0), null));
+
+    @Test
+    void writesRssItemsAndTheLatestUpdate() throws Exception {
+        Document rss = parse(render(Format.RSS, rows));
+
+        Element channel = (Element) rss.getDocumentElement().getElementsByTagName("channel").item(0);
+        assertEquals(2, channel.getElementsByTagName("item").getLength());
+        Element first = (Element) channel.getElementsByTagName("item").item(0);
+        assertEquals("Tags & <angles>", text(first, "title"));
+        assertEquals("https://blog.example/blog/2", text(first, "link"));
+        assertEquals("x".repeat(200) + "...", text(first, "description"));
+        assertEquals("Ada Lovelace", first.getElementsByTagNameNS("http://purl.org/dc/elements/1.1/", "creator").item(0).getTextContent());
+        assertEquals("Bell in title", text((Element) channel.getElementsByTagName("item").item(1), "title"));
+        assertTrue(text(channel, "lastBuildDate").contains("5 Mar 2025 12:00:00"));
+    }
+
+    @Test
+    void writesAtomEntries() throws Exception {
+        Document atom = parse(render(Format.ATOM, rows));
+
+        Element feed = atom.getDocumentElement();
+        assertEquals(ATOM_NS, feed.getNamespaceURI());
+        assertEquals("https://blog.example/feed", feed.getElementsByTagNameNS(ATOM_NS, "id").item(0).getTextContent());
+        Element second = (Element) feed.getElementsByTagNameNS(ATOM_NS, "entry").item(1);
+        assertTrue(second.getElementsByTagNameNS(ATOM_NS, "updated").item(0).getTextContent().startsWith("2025-03-01T09:00:00"));
+        assertEquals("Alan Lovelace", second.getElementsByTagNameNS(ATOM_NS, "name").item(0).getTextContent());
+    }
+
+    @Test
+    void sameEntriesRenderToTheSameBytes() throws Exception {
+        assertArrayEquals(render(Format.ATOM, rows), render(Format.ATOM, rows));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SyndicationFeedWriter writer = new SyndicationFeedWriter(out, Format.RSS, "https://blog.example");
+        writer.start("Empty", "Nothing yet", "/feed");
+        assertNull(writer.end());
+        parse(out.toByteArray());
+    }
+
+    private static byte[] render(Format format, List<BlogSummaryRow> rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SyndicationFeedWriter writer = new SyndicationFeedWriter(out, format, "https://blog.example/");
+        writer.start("BlogApp", "The newest posts", "/feed");
+        for (BlogSummaryRow row : rows) {
+            writer.entry(row);
+        }
+        writer.end();
+        return out.toByteArray();
+    }
+
+    private static Document parse(byte[] xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+    }
+
+    private static String text(Element parent, String name) {
+        return parent.getElementsByTagName(name).item(0).getTextContent();
+    }
+
+    private static BlogSummaryRow row(Long id, String title, String firstName, String contentHead,
+                                      LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return new BlogSummaryRow() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+            public Long getViewCount() { return 0L; }
+            public Long getCommentCount() { return 0L; }
+            public Long getAuthorId() { return 1L; }
+            public String getAuthorEmail() { return "author@example.com"; }
+            public String getAuthorFirstName() { return firstName; }
+            public String getAuthorLastName() { return "Lovelace"; }
+            public LocalDateTime getCreatedAt() { return createdAt; }
+            public LocalDateTime getUpdatedAt() { return updatedAt; }
+            public String getContentHead() { return contentHead; }
+        };
+    }
+}
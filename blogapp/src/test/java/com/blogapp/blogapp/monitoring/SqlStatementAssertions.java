@@ -0,0 +1,82 @@
+package com.blogapp.blogapp.monitoring;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Test helper that fails a test when a block of code executes more SQL than expected.
+ * <pre>
+ * SqlStatementAssertions.assertMaxStatements(2, () -&gt; blogService.getAllBlogs(pageable, "date"));
+ * </pre>
+ * Statements are counted by {@link SqlStatementCountingDataSource}, so the test context
+ * must run with app.sql.monitoring.enabled (the default).
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    /**
+     * Run the action and return the statements it executed
+     */
+    public static SqlStatementStats capture(Runnable action) {
+        return captureResult(() -> {
+            action.run();
+            return null;
+        }).stats();
+    }
+
+    /**
+     * Run the action and return both its result and the statements it executed
+     */
+    public static <T> Captured<T> captureResult(Supplier<T> action) {
+        SqlStatementStats stats = SqlStatementContext.begin();
+        try {
+            T result = action.get();
+            return new Captured<>(result, stats);
+        } finally {
+            SqlStatementContext.end(stats);
+        }
+    }
+
+    public static <T> T assertStatementCount(int expected, Supplier<T> action) {
+        Captured<T> captured = captureResult(action);
+        if (captured.stats().getStatementCount() != expected) {
+            throw new AssertionError(describe("Expected " + expected + " SQL statements but executed "
+                    + captured.stats().getStatementCount(), captured.stats()));
+        }
+        return captured.result();
+    }
+
+    public static <T> T assertMaxStatements(int max, Supplier<T> action) {
+        Captured<T> captured = captureResult(action);
+        if (captured.stats().getStatementCount() > max) {
+            throw new AssertionError(describe("Expected at most " + max + " SQL statements but executed "
+                    + captured.stats().getStatementCount(), captured.stats()));
+        }
+        return captured.result();
+    }
+
+    /**
+     * Fail when any statement shape is executed more than {@code maxRepeats} times
+     */
+    public static <T> T assertNoRepeatedStatements(int maxRepeats, Supplier<T> action) {
+        Captured<T> captured = captureResult(action);
+        Map<String, Integer> repeated = captured.stats().getRepeatedShapes(maxRepeats);
+        if (!repeated.isEmpty()) {
+            throw new AssertionError(describe("Statements repeated more than " + maxRepeats + " times: "
+                    + repeated.keySet(), captured.stats()));
+        }
+        return captured.result();
+    }
+
+    private static String describe(String message, SqlStatementStats stats) {
+        StringBuilder description = new StringBuilder(message);
+        stats.getStatements().forEach((sql, count) ->
+                description.append(System.lineSeparator()).append("  ").append(count).append("x ").append(sql));
+        return description.toString();
+    }
+
+    public record Captured<T>(T result, SqlStatementStats stats) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.blogapp.blogapp.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SqlStatementCountingDataSourceTest {
+
+    private SqlStatementCountingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new SqlStatementCountingDataSource(target);
+    }
+
+    @Test
+    void countsStatementsInNestedScopes() {
+        SqlStatementStats outer = SqlStatementContext.begin();
+        SqlStatementStats inner = SqlStatementContext.begin();
+        execute("select * from blogs where id = ?");
+        SqlStatementContext.end(inner);
+        execute("select count(*) from blogs");
+        SqlStatementContext.end(outer);
+
+        assertEquals(1, inner.getStatementCount());
+        assertEquals(2, outer.getStatementCount());
+    }
+
+    @Test
+    void detectsRepeatedStatementShapes() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> {
+            for (int i = 0; i < 12; i++) {
+                execute("select u.* from users u where u.id = " + i);
+            }
+            execute("select * from blogs");
+        });
+
+        Map<String, Integer> repeated = stats.getRepeatedShapes(10);
+        assertEquals(Map.of("select u.* from users u where u.id = ?", 12), repeated);
+    }
+
+    @Test
+    void assertionFailsOnRegression() {
+        assertThrows(AssertionError.class, () -> SqlStatementAssertions.assertMaxStatements(1, () -> {
+            execute("select * from blogs");
+            execute("select * from users");
+            return null;
+        }));
+    }
+
+    @Test
+    void collapsesInListsIntoOneShape() {
+        assertEquals(SqlStatementStats.shapeOf("select * from blogs where id in (?, ?, ?)"),
+                SqlStatementStats.shapeOf("select * from blogs where id in (?,?)"));
+    }
+
+    private void execute(String sql) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.prepareStatement(sql).executeQuery();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package com.blogapp.blogapp.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.blogapp.blogapp.entity.Comment;
+import com.blogapp.blogapp.entity.User;
+import com.blogapp.blogapp.feed.SitemapService;
+import com.blogapp.blogapp.monitoring.SqlStatementAssertions;
+import com.blogapp.blogapp.monitoring.SqlStatementMonitoringConfig;
+import com.blogapp.blogapp.monitoring.SqlStatementStats;
+import com.blogapp.blogapp.util.CommentPath;
+import com.blogapp.blogapp.util.FieldSelection;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs EXPLAIN (ANALYZE, BUFFERS) on the SQL Hibernate generates for every BlogRepository,
+ * CommentRepository and UserRepository query, and on the sitemap's, against a synthetic
+ * dataset, and fails when a query falls back to a sequential scan or reads more buffers than
+ * its budget.
+ *
+ * Needs a dedicated local Postgres database, run with: mvn test -Pquery-plan
+ * (or -Dqueryplan.url=jdbc:postgresql://localhost:5432/blogapp_queryplan).
+ * The dataset is seeded once and reused by later runs.
+ */
+@Tag("query-plan")
+@EnabledIfSystemProperty(named = "queryplan.url", matches = ".+")
+@DataJpaTest(properties = {
+    "spring.datasource.url=${queryplan.url}",
+    "spring.datasource.username=${queryplan.username:postgres}",
+    "spring.datasource.password=${queryplan.password:}",
+    "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SqlStatementMonitoringConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanRegressionTest {
+
+    private static final int USERS = 2_000;
+    private static final int BLOGS = 50_000;
+    private static final int COMMENTS = 200_000;
+
+    /** Buffer budget for an indexed page of 10 rows, generous enough to absorb heap fetches */
+    private static final int PAGE_BUDGET = 200;
+
+    /** Buffer budget for counting every blog, which is bounded by the size of the smallest index */
+    private static final int FULL_COUNT_BUDGET = 1_000;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private long authorId;
+    private long blogId;
+    private long commentAuthorId;
+    private String threadPath;
+    private List<Long> feedPage;
+    private List<Long> commentPage;
+    private List<Long> feedAuthors;
+
+    @BeforeAll
+    void seedSyntheticData() {
+        Integer seeded = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email LIKE 'plan-user-%'", Integer.class);
+        if (seeded == null || seeded < USERS) {
+            jdbcTemplate.execute("INSERT INTO users (email, password, first_name, last_name, created_at, updated_at) "
+                    + "SELECT 'plan-user-' || g || '@example.test', 'x', 'First' || g, 'Last' || g, now(), now() "
+                    + "FROM generate_series(1, " + USERS + ") g");
+            // Skewed authorship, views and comment targets so the planner sees realistic statistics
+            jdbcTemplate.execute("INSERT INTO blogs (title, content, view_count, author_id, created_at, updated_at) "
+                    + "SELECT 'Post ' || g || ' ' || md5(g::text), repeat(md5(g::text) || ' ', 40), "
+                    + "floor(power(random(), 4) * 100000)::bigint, "
+                    + "u.first_id + floor(power(random(), 3) * " + USERS + ")::bigint, "
+                    + "now() - (g || ' minutes')::interval, now() "
+                    + "FROM generate_series(1, " + BLOGS + ") g, "
+                    + "(SELECT MIN(id) AS first_id FROM users WHERE email LIKE 'plan-user-%') u");
+            jdbcTemplate.execute("INSERT INTO comments (content, blog_id, author_id, is_edited, created_at, updated_at) "
+                    + "SELECT 'Comment ' || g, b.first_id + floor(power(random(), 3) * " + BLOGS + ")::bigint, "
+                    + "u.first_id + floor(random() * " + USERS + ")::bigint, false, "
+                    + "now() - (g || ' seconds')::interval, now() "
+                    + "FROM generate_series(1, " + COMMENTS + ") g, "
+                    + "(SELECT MIN(id) AS first_id FROM users WHERE email LIKE 'plan-user-%') u, "
+                    + "(SELECT MIN(id) AS first_id FROM blogs WHERE title LIKE 'Post %') b");
+        }
+        // Top-level paths, as the scheduled backfill writes them
+        jdbcTemplate.update("UPDATE comments SET path = " + CommentPath.TOP_LEVEL_SQL + " WHERE path IS NULL AND parent_id IS NULL");
+        // Every comment recorded as created, as the change log backfill records them
+        Integer logged = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM change_log WHERE entity_type = 'COMMENT'", Integer.class);
+        if (logged == null || logged < COMMENTS) {
+            jdbcTemplate.update("INSERT INTO change_log (entity_type, entity_id, seq, action, blog_id, changed_at) "
+                    + "SELECT 'COMMENT', c.id, h.head + row_number() OVER (ORDER BY c.id), 'CREATED', c.blog_id, LOCALTIMESTAMP "
+                    + "FROM comments c, (SELECT COALESCE(MAX(seq), 0) AS head FROM change_log) h ON CONFLICT DO NOTHING");
+        }
+        // VACUUM as well as ANALYZE so the visibility map allows index-only scans, as in a settled production table
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+        jdbcTemplate.execute("VACUUM ANALYZE blogs");
+        jdbcTemplate.execute("VACUUM ANALYZE comments");
+        jdbcTemplate.execute("VACUUM ANALYZE change_log");
+
+        // The busiest rows, where a missing index hurts the most
+        authorId = jdbcTemplate.queryForObject(
+                "SELECT author_id FROM blogs GROUP BY author_id ORDER BY COUNT(*) DESC LIMIT 1", Long.class);
+        blogId = jdbcTemplate.queryForObject(
+                "SELECT blog_id FROM comments GROUP BY blog_id ORDER BY COUNT(*) DESC LIMIT 1", Long.class);
+        commentAuthorId = jdbcTemplate.queryForObject(
+                "SELECT author_id FROM comments GROUP BY author_id ORDER BY COUNT(*) DESC LIMIT 1", Long.class);
+        threadPath = jdbcTemplate.queryForObject(
+                "SELECT path FROM comments WHERE blog_id = ? ORDER BY path LIMIT 1", String.class, blogId);
+        feedPage = jdbcTemplate.queryForList(
+                "SELECT id FROM blogs WHERE title LIKE 'Post %' ORDER BY created_at DESC LIMIT 10", Long.class);
+        commentPage = jdbcTemplate.queryForList(
+                "SELECT id FROM comments WHERE blog_id = ? ORDER BY created_at DESC LIMIT 10", Long.class, blogId);
+        feedAuthors = jdbcTemplate.queryForList(
+                "SELECT DISTINCT author_id FROM blogs WHERE id IN (" + String.join(", ", feedPage.stream().map(String::valueOf).toList())
+                        + ")", Long.class);
+    }
+
+    // BlogRepository
+
+    @Test
+    void findAllOrderByCreatedAtDesc() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(
+                () -> blogRepository.findAllOrderByCreatedAtDesc(PageRequest.of(3, 10)));
+        assertPlan(stats, 0, List.of(30, 10), Set.of(), PAGE_BUDGET);
+        assertPlan(stats, 1, List.of(), Set.of(), FULL_COUNT_BUDGET);
+    }
+
+    @Test
+    void findAllOrderByViewCountDesc() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(
+                () -> blogRepository.findAllOrderByViewCountDesc(PageRequest.of(3, 10)));
+        assertPlan(stats, 0, List.of(30, 10), Set.of(), PAGE_BUDGET);
+        assertPlan(stats, 1, List.of(), Set.of(), FULL_COUNT_BUDGET);
+    }
+
+    @Test
+    void findAllOrderByTitleAsc() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(
+                () -> blogRepository.findAllOrderByTitleAsc(PageRequest.of(3, 10)));
+        assertPlan(stats, 0, List.of(30, 10), Set.of(), PAGE_BUDGET);
+        assertPlan(stats, 1, List.of(), Set.of(), FULL_COUNT_BUDGET);
+    }
+
+    @Test
+    void findByAuthorOrderByCreatedAtDesc() {
+        User author = new User();
+        author.setId(authorId);
+        SqlStatementStats stats = SqlStatementAssertions.capture(
+                () -> blogRepository.findByAuthorOrderByCreatedAtDesc(author, PageRequest.of(1, 10)));
+        assertPlan(stats, 0, List.of(authorId, 10, 10), Set.of(), PAGE_BUDGET);
+        assertPlan(stats, 1, List.of(authorId), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void findByAuthorIdOrderByCreatedAtDesc() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(
+                () -> blogRepository.findByAuthorIdOrderByCreatedAtDesc(authorId, PageRequest.of(1, 10)));
+        assertPlan(stats, 0, List.of(authorId, 10, 10), Set.of(), PAGE_BUDGET);
+        assertPlan(stats, 1, List.of(authorId), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void countByAuthorId() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> blogRepository.countByAuthorId(authorId));
+        assertPlan(stats, 0, List.of(authorId), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void searchByTitleOrContent() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(
+                () -> blogRepository.searchByTitleOrContent("c4ca4238", PageRequest.of(0, 10)));
+        // LIKE '%term%' cannot use a btree index; this case only guards the buffer budget
+        // The term is bound twice for the excerpt and twice for the filter
+        assertPlan(stats, 0, List.of("c4ca4238", "c4ca4238", "c4ca4238", "c4ca4238", 10), Set.of("blogs"), 20_000);
+    }
+
+    @Test
+    void findByIdWithAuthor() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> blogRepository.findByIdWithAuthor(blogId));
+        assertPlan(stats, 0, List.of(blogId), Set.of(), 20);
+    }
+
+    @Test
+    void incrementViewCount() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> blogRepository.incrementViewCount(blogId));
+        // Runs inside the test transaction, so the EXPLAIN ANALYZE update is rolled back as well
+        assertPlan(stats, 0, List.of(blogId), Set.of(), 50);
+    }
+
+    @Test
+    void countCommentsByBlogIds() {
+        // The newest page of the feed, which holds the most commented blogs of the seed
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> blogRepository.countCommentsByBlogIds(feedPage));
+        assertPlan(stats, 0, List.copyOf(feedPage), Set.of(), 1_000);
+    }
+
+    @Test
+    void findVersionById() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> blogRepository.findVersionById(blogId));
+        assertPlan(stats, 0, List.of(blogId), Set.of(), 20);
+    }
+
+    @Test
+    void findSummaryRowsByIdIn() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> blogRepository.findSummaryRowsByIdIn(feedPage));
+        assertPlan(stats, 0, List.copyOf(feedPage), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void findAllByIdWithAuthor() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> blogRepository.findAllByIdWithAuthor(feedPage));
+        assertPlan(stats, 0, List.copyOf(feedPage), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void streamLatestSummaryRows() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> {
+            try (Stream<BlogSummaryRow> rows = blogRepository.streamLatestSummaryRows(Limit.of(20))) {
+                rows.forEach(row -> { });
+            }
+        });
+        assertPlan(stats, 0, List.of(20), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void streamLatestSummaryRowsByAuthorId() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> {
+            try (Stream<BlogSummaryRow> rows = blogRepository.streamLatestSummaryRowsByAuthorId(authorId, Limit.of(20))) {
+                rows.forEach(row -> { });
+            }
+        });
+        assertPlan(stats, 0, List.of(authorId, 20), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void countByAuthorIds() {
+        // The authors of a feed page, as a batch of profiles asks for them
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> blogRepository.countByAuthorIds(feedAuthors));
+        assertPlan(stats, 0, List.copyOf(feedAuthors), Set.of(), 1_000);
+    }
+
+    @Test
+    void findSummaries() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> blogRepository.findSummaries(
+                "date", FieldSelection.parse("id,title,commentCount,contentPreview,author.firstName"), PageRequest.of(3, 10)));
+        assertPlan(stats, 0, List.of(1, 201, 30, 10), Set.of(), PAGE_BUDGET);
+        assertPlan(stats, 1, List.of(), Set.of(), FULL_COUNT_BUDGET);
+    }
+
+    @Test
+    void addToCommentCount() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> blogRepository.addToCommentCount(blogId, 1));
+        assertPlan(stats, 0, List.of(1L, blogId), Set.of(), 50);
+    }
+
+    // CommentRepository
+
+    @Test
+    void findByBlogIdOrderByCreatedAtDesc() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(
+                () -> commentRepository.findByBlogIdOrderByCreatedAtDesc(blogId, PageRequest.of(1, 10)));
+        assertPlan(stats, 0, List.of(blogId, 10, 10), Set.of(), PAGE_BUDGET);
+        assertPlan(stats, 1, List.of(blogId), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void findByBlogIdOrderByCreatedAtAsc() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(
+                () -> commentRepository.findByBlogIdOrderByCreatedAtAsc(blogId, PageRequest.of(1, 10)));
+        assertPlan(stats, 0, List.of(blogId, 10, 10), Set.of(), PAGE_BUDGET);
+        assertPlan(stats, 1, List.of(blogId), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void findLatestByBlogIdBefore() {
+        Comment cursor = commentRepository.findLatestByBlogId(blogId, Limit.of(1_000)).get(999);
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.findLatestByBlogIdBefore(
+                blogId, cursor.getCreatedAt(), cursor.getId(), Limit.of(21)));
+        // As cheap a thousand rows deep as on the first page
+        assertPlan(stats, 0, List.of(blogId, cursor.getCreatedAt(), cursor.getId(), 21), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void findLatestByAuthorIdBefore() {
+        Comment cursor = commentRepository.findLatestByAuthorId(commentAuthorId, Limit.of(50)).get(49);
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.findLatestByAuthorIdBefore(
+                commentAuthorId, cursor.getCreatedAt(), cursor.getId(), Limit.of(21)));
+        assertPlan(stats, 0, List.of(commentAuthorId, cursor.getCreatedAt(), cursor.getId(), 21), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void countByBlogId() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.countByBlogId(blogId));
+        assertPlan(stats, 0, List.of(blogId), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void findThreadsByBlogId() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(
+                () -> commentRepository.findThreadsByBlogId(blogId, 10, 10, 4));
+        assertPlan(stats, 0, List.of(blogId, 10, 10, blogId, 4), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void countTopLevelByBlogId() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.countTopLevelByBlogId(blogId));
+        assertPlan(stats, 0, List.of(blogId), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void findSubtree() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.findSubtree(
+                blogId, threadPath, CommentPath.subtreeEnd(threadPath), Limit.of(1_000)));
+        assertPlan(stats, 0, List.of(blogId, threadPath, CommentPath.subtreeEnd(threadPath), 1_000), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void findSubtreeIds() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.findSubtreeIds(
+                blogId, threadPath, CommentPath.subtreeEnd(threadPath)));
+        assertPlan(stats, 0, List.of(blogId, threadPath, CommentPath.subtreeEnd(threadPath)), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void moveReplies() {
+        long id = Long.parseLong(threadPath, 16);
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.moveReplies(
+                blogId, threadPath, CommentPath.subtreeEnd(threadPath), "", id, null));
+        // Rolled back with the test transaction, as for incrementViewCount
+        assertPlan(stats, 0, Arrays.asList("", threadPath, id, null, blogId, threadPath, CommentPath.subtreeEnd(threadPath)),
+                Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void backfillTopLevelPaths() {
+        // One range of ids, however few of them lack a path
+        long after = jdbcTemplate.queryForObject("SELECT MIN(id) FROM comments", Long.class);
+        SqlStatementStats stats = SqlStatementAssertions.capture(
+                () -> commentRepository.backfillTopLevelPaths(after, after + 5_000));
+        assertPlan(stats, 0, List.of(after, after + 5_000), Set.of(), 1_000);
+    }
+
+    @Test
+    void findMaxCommentId() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.findMaxId());
+        assertPlan(stats, 0, List.of(), Set.of(), 20);
+    }
+
+    @Test
+    void findCommentsByIdWithAuthor() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.findAllByIdWithAuthor(commentPage));
+        assertPlan(stats, 0, List.copyOf(commentPage), Set.of(), PAGE_BUDGET);
+    }
+
+    @Test
+    void countCommentsByAuthorIds() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.countByAuthorIds(feedAuthors));
+        assertPlan(stats, 0, List.copyOf(feedAuthors), Set.of(), 1_000);
+    }
+
+    @Test
+    void findCommentsVersionByBlogId() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> commentRepository.findVersionByBlogId(blogId));
+        assertPlan(stats, 0, List.of(blogId), Set.of(), 20);
+    }
+
+    // UserRepository
+
+    @Test
+    void findUserVersionById() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> userRepository.findVersionById(authorId));
+        assertPlan(stats, 0, List.of(authorId), Set.of(), 20);
+    }
+
+    @Test
+    void findUserVersionByEmail() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> userRepository.findVersionByEmail("plan-user-1@example.test"));
+        assertPlan(stats, 0, List.of("plan-user-1@example.test"), Set.of(), 20);
+    }
+
+    @Test
+    void addToUserCounts() {
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> {
+            userRepository.addToBlogCount(authorId, 1);
+            userRepository.addToCommentCount(authorId, 1);
+        });
+        assertPlan(stats, 0, List.of(1L, authorId), Set.of(), 50);
+        assertPlan(stats, 1, List.of(1L, authorId), Set.of(), 50);
+    }
+
+    // Sitemap
+
+    @Test
+    void sitemapUrls() {
+        SitemapService sitemapService = new SitemapService(jdbcTemplate, transactionManager, 10_000, 5_000, "http://localhost");
+        // A part two parts into the seeded posts, so every batch is full
+        long first = jdbcTemplate.queryForObject("SELECT MIN(id) FROM blogs WHERE title LIKE 'Post %'", Long.class);
+        int part = (int) (first / 10_000) + 2;
+        SqlStatementStats stats = SqlStatementAssertions.capture(() -> {
+            try {
+                sitemapService.writePart(part, OutputStream.nullOutputStream());
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // A batch walks the primary key from the previous one, however deep into the table
+        assertPlan(stats, 0, List.of(part * 10_000L + 5_000, part * 10_000L + 10_000, 5_000), Set.of(), 2_000);
+    }
+
+    /**
+     * EXPLAIN the n-th statement executed by the repository call with the given bind values
+     * (in placeholder order, pagination offset before limit) and check the resulting plan
+     */
+    private void assertPlan(SqlStatementStats stats, int statementIndex, List<Object> parameters,
+                            Set<String> allowedSequentialScans, long bufferBudget) {
+        List<String> statements = new ArrayList<>(stats.getStatements().keySet());
+        assertFalse(statements.size() <= statementIndex,
+                "Expected at least " + (statementIndex + 1) + " statements but got " + statements);
+        String sql = statements.get(statementIndex);
+        assertEquals(sql.chars().filter(c -> c == '?').count(), parameters.size(),
+                "Bind values do not match the placeholders of: " + sql);
+
+        String planJson = jdbcTemplate.queryForObject(
+                "EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + sql, String.class, parameters.toArray());
+        JsonNode plan = readPlan(planJson);
+
+        List<String> sequentialScans = new ArrayList<>();
+        collectSequentialScans(plan, sequentialScans);
+        sequentialScans.removeAll(allowedSequentialScans);
+        if (!sequentialScans.isEmpty()) {
+            fail("Sequential scan on " + sequentialScans + " for: " + sql + System.lineSeparator() + plan.toPrettyString());
+        }
+
+        long buffers = plan.path("Shared Hit Blocks").asLong() + plan.path("Shared Read Blocks").asLong();
+        if (buffers > bufferBudget) {
+            fail("Read " + buffers + " buffers (budget " + bufferBudget + ") for: " + sql
+                    + System.lineSeparator() + plan.toPrettyString());
+        }
+    }
+
+    private JsonNode readPlan(String planJson) {
+        try {
+            return objectMapper.readTree(planJson).get(0).get("Plan");
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + planJson, e);
+        }
+    }
+
+    private static void collectSequentialScans(JsonNode node, List<String> relations) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            relations.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSequentialScans(child, relations);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.blogapp.blogapp.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class LshIndexTest {
+
+    private final LshIndex index = new LshIndex();
+
+    @Test
+    void findsNearDuplicatesButNotUnrelatedPosts() {
+        String article = words(0, 300);
+        index.put(1, "Original", MinHash.signature(article));
+        index.put(2, "Lightly edited", MinHash.signature(article.replace("w150 ", "changed ")));
+        index.put(3, "Unrelated", MinHash.signature(words(1_000, 300)));
+
+        List<LshIndex.Match> related = index.similar(1, 5, 0.2);
+
+        assertEquals(1, related.size());
+        assertEquals(2L, related.get(0).id());
+        assertTrue(related.get(0).similarity() > 0.8);
+    }
+
+    @Test
+    void removedAndReplacedPostsDropOut() {
+        String article = words(0, 200);
+        index.put(1, "Original", MinHash.signature(article));
+        index.put(2, "Copy", MinHash.signature(article));
+        index.put(3, "Another copy", MinHash.signature(article));
+
+        index.remove(2);
+        index.put(3, "Rewritten", MinHash.signature(words(500, 200)));
+
+        assertEquals(List.of(), index.similar(1, 5, 0.2));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void survivesGrowingTheTable() {
+        for (int i = 0; i < 3_000; i++) {
+            index.put(i, "Post " + i, MinHash.signature(words(i * 100, 100)));
+        }
+        index.put(10_000, "Copy of 42", MinHash.signature(words(4_200, 100)));
+
+        assertEquals(List.of(42L), index.similar(10_000, 5, 0.5).stream().map(LshIndex.Match::id).toList());
+    }
+
+    private static String words(int first, int count) {
+        return IntStream.range(first, first + count).mapToObj(i -> "w" + i).collect(Collectors.joining(" "));
+    }
+}
@@ -0,0 +1,65 @@
+package com.blogapp.blogapp.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.blogapp.blogapp.cache.CacheKeys;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SearchResultCacheTest {
+
+    private final SearchResultCache cache = new SearchResultCache(2, new SimpleMeterRegistry());
+
+    @Test
+    void normalizedQueriesShareAnEntry() {
+        assertEquals("spring boot", SearchResultCache.normalizeQuery("  Spring \t BOOT "));
+
+        cache.put(key("spring boot", 0), cache.generation(), result(1L));
+
+        assertNotNull(cache.get(key(SearchResultCache.normalizeQuery("SPRING  boot"), 0)));
+        assertNull(cache.get(key("spring boot", 1)));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedPage() {
+        cache.put(key("a", 0), cache.generation(), result(1L));
+        cache.put(key("b", 0), cache.generation(), result(2L));
+        cache.get(key("a", 0));
+        cache.put(key("c", 0), cache.generation(), result(3L));
+
+        assertNotNull(cache.get(key("a", 0)));
+        assertNull(cache.get(key("b", 0)));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void blogChangesDropEntriesAndStaleResults() {
+        long before = cache.generation();
+        cache.put(key("a", 0), before, result(1L));
+
+        cache.invalidate(Set.of(CacheKeys.comment(7L)));
+        assertNotNull(cache.get(key("a", 0)));
+
+        cache.invalidate(Set.of(CacheKeys.blog(9L)));
+        assertNull(cache.get(key("a", 0)));
+
+        // Searched before the change, stored after it
+        cache.put(key("a", 0), before, result(1L));
+        assertNull(cache.get(key("a", 0)));
+    }
+
+    private static SearchResultCache.Key key(String query, int page) {
+        return new SearchResultCache.Key(query, page, 10);
+    }
+
+    private static SearchResultCache.Result result(Long id) {
+        return new SearchResultCache.Result(List.of(id), List.of("snippet"), 1);
+    }
+}
@@ -0,0 +1,51 @@
+package com.blogapp.blogapp.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SnippetHighlighterTest {
+
+    @Test
+    void marksEveryOccurrenceCaseInsensitively() {
+        String snippet = SnippetHighlighter.highlight("Spring makes spring boot apps easy", true, true, "SPRING");
+
+        assertEquals("<mark>Spring</mark> makes <mark>spring</mark> boot apps easy", snippet);
+    }
+
+    @Test
+    void cutsContextAtWordsAndEscapesHtml() {
+        String before = "lorem ipsum ".repeat(20);
+        String after = " dolor sit amet".repeat(20);
+        String snippet = SnippetHighlighter.highlight(before + "<b>cache</b> & co" + after, true, false, "cache");
+
+        assertTrue(snippet.startsWith("…lorem") || snippet.startsWith("…ipsum"), snippet);
+        assertTrue(snippet.contains("&lt;b&gt;<mark>cache</mark>&lt;/b&gt; &amp; co"), snippet);
+        assertTrue(snippet.endsWith("…"), snippet);
+        assertTrue(snippet.length() < 2 * SnippetHighlighter.CONTEXT + 80, snippet);
+    }
+
+    @Test
+    void stopsAfterEnoughFragments() {
+        String excerpt = ("needle " + "hay ".repeat(40)).repeat(10);
+        String snippet = SnippetHighlighter.highlight(excerpt, false, false, "needle");
+
+        assertEquals(SnippetHighlighter.MAX_FRAGMENTS, snippet.split("<mark>", -1).length - 1);
+        assertTrue(snippet.startsWith("…<mark>needle</mark>"), snippet);
+    }
+
+    @Test
+    void mergesFragmentsThatTouch() {
+        String excerpt = "c4ca4238a0b923820dcc509a6f75849b ".repeat(12).trim();
+        String snippet = SnippetHighlighter.highlight(excerpt, true, true, "c4ca4238");
+
+        assertEquals(excerpt.replace("c4ca4238", "<mark>c4ca4238</mark>"), snippet);
+    }
+
+    @Test
+    void noSnippetWhenOnlyTheTitleMatched() {
+        assertNull(SnippetHighlighter.highlight("Nothing to see here", true, true, "spring"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.blogapp.blogapp.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SuggestTrieTest {
+
+    private final SuggestTrie trie = new SuggestTrie(2);
+
+    @Test
+    void matchesAnyWordAndRanksByPopularity() {
+        trie.put(1, "Getting started with Spring", 10);
+        trie.put(2, "Spring Boot tips", 50);
+        trie.put(3, "Springtime in Café Paris", 5);
+
+        assertEquals(List.of(2L, 1L), ids("spr"));
+        assertEquals(List.of(3L), ids("cafe p"));
+        assertEquals(List.of(1L), ids("  Started  WITH"));
+        assertEquals(List.of(), ids("boot camp"));
+    }
+
+    @Test
+    void removalPromotesTheNextBest() {
+        trie.put(1, "Spring one", 30);
+        trie.put(2, "Spring two", 20);
+        trie.put(3, "Spring three", 10);
+
+        trie.remove(1);
+
+        assertEquals(List.of(2L, 3L), ids("spring"));
+        assertEquals(List.of(), ids("spring o"));
+    }
+
+    @Test
+    void updateReplacesTheOldTitle() {
+        trie.put(1, "Draft", 1);
+
+        trie.put(1, "Published post", 1);
+
+        assertEquals(List.of(), ids("draft"));
+        assertEquals(List.of(1L), ids("post"));
+    }
+
+    private List<Long> ids(String prefix) {
+        return trie.suggest(prefix, 10).stream().map(SuggestTrie.Entry::id).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package com.blogapp.blogapp.trending;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.blogapp.blogapp.cache.CacheKeys;
+import com.blogapp.blogapp.dto.BlogResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TrendingServiceTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final long start = System.currentTimeMillis();
+
+    // Top 2, half-life 6h, 24 buckets of 1h
+    private final TrendingService trending = new TrendingService(2, 360, 1440, 60, new SimpleMeterRegistry());
+
+    @Test
+    void recentViewsOutrankOlderOnes() {
+        views(1L, 10, start);
+        views(2L, 8, start + 12 * HOUR);
+
+        // 10 views twelve hours (two half-lives) ago weigh like 2.5 views now
+        assertEquals(List.of(2L, 1L), trending.ranking());
+
+        views(1L, 6, start + 12 * HOUR);
+        assertEquals(List.of(1L, 2L), trending.ranking());
+    }
+
+    @Test
+    void keepsOnlyTheTopK() {
+        views(1L, 3, start);
+        views(2L, 1, start);
+        views(3L, 2, start);
+
+        assertEquals(List.of(1L, 3L), trending.ranking());
+    }
+
+    @Test
+    void viewsLeaveWithTheWindow() {
+        views(1L, 5, start);
+        views(2L, 1, start + 20 * HOUR);
+
+        trending.rotate(start + 25 * HOUR);
+
+        assertEquals(List.of(2L), trending.ranking());
+        assertTrue(trending.summary(1L).isEmpty());
+    }
+
+    @Test
+    void aViewInANewBucketExpiresTheWindowBeforeTheSchedule() {
+        views(1L, 50, start);
+        views(2L, 1, start + 20 * HOUR);
+        views(3L, 2, start + 20 * HOUR);
+
+        // Blog 1 left the window, so blog 2 takes its place without waiting for rotate()
+        views(3L, 1, start + 25 * HOUR);
+
+        assertEquals(List.of(3L, 2L), trending.ranking());
+        assertTrue(trending.summary(1L).isEmpty());
+    }
+
+    @Test
+    void invalidationDropsListingDataButKeepsTheRank() {
+        views(1L, 1, start);
+
+        trending.invalidate(Set.of(CacheKeys.blog(1L)));
+
+        assertEquals(List.of(1L), trending.ranking());
+        assertTrue(trending.summary(1L).isEmpty());
+    }
+
+    private void views(Long blogId, int count, long at) {
+        for (int i = 0; i < count; i++) {
+            trending.recordView(blog(blogId), at);
+        }
+    }
+
+    private static BlogResponse blog(Long id) {
+        return new BlogResponse(id, "Title " + id, "Content", List.of(), 1L, null, 0L,
+                new BlogResponse.AuthorInfo(1L, "a@example.com", "A", "B"), LocalDateTime.now(), LocalDateTime.now());
+    }
+}
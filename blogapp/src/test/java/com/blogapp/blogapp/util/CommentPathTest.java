@@ -0,0 +1,44 @@
+package com.blogapp.blogapp.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CommentPathTest {
+
+    @Test
+    void pathsSortInReadingOrderAndASubtreeIsOneRange() {
+        String first = CommentPath.of(null, 9);
+        String reply = CommentPath.of(first, 300);
+        String replyToReply = CommentPath.of(reply, 301);
+        String laterReply = CommentPath.of(first, 1000);
+        String second = CommentPath.of(null, 10);
+
+        List<String> sorted = new ArrayList<>(List.of(second, laterReply, replyToReply, first, reply));
+        sorted.sort(null);
+        assertEquals(List.of(first, reply, replyToReply, laterReply, second), sorted);
+
+        for (String inside : List.of(reply, replyToReply)) {
+            assertTrue(inside.compareTo(reply) >= 0 && inside.compareTo(CommentPath.subtreeEnd(reply)) < 0);
+        }
+        for (String outside : List.of(first, laterReply, second)) {
+            assertTrue(outside.compareTo(reply) < 0 || outside.compareTo(CommentPath.subtreeEnd(reply)) >= 0);
+        }
+    }
+
+    @Test
+    void pathsCarryTheDepthAndTheAncestors() {
+        String path = CommentPath.of(CommentPath.of(CommentPath.of(null, 9), 300), 0xabcdefL);
+
+        assertEquals("000000000009" + "00000000012c" + "000000abcdef", path);
+        assertEquals(2, CommentPath.depth(path));
+        assertEquals(List.of(9L, 300L), CommentPath.ancestorIds(path));
+        assertEquals(List.of(), CommentPath.ancestorIds(CommentPath.of(null, 9)));
+        assertEquals("000000000009" + "00000000012c", CommentPath.parentPath(path));
+        assertEquals("", CommentPath.parentPath(CommentPath.of(null, 9)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.blogapp.blogapp.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesWithinExpectedError() {
+        for (int distinct : new int[] {10, 1_000, 100_000}) {
+            HyperLogLog sketch = new HyperLogLog(12);
+            for (int i = 0; i < distinct; i++) {
+                sketch.offer(HyperLogLog.hash("viewer-" + i));
+                // Repeat views must not count
+                sketch.offer(HyperLogLog.hash("viewer-" + i));
+            }
+
+            // Four standard errors of 1.6%, and exact-ish for tiny counts
+            assertEquals(distinct, sketch.estimate(), Math.max(1, distinct * 0.065), "distinct " + distinct);
+        }
+    }
+
+    @Test
+    void mergeIsAUnionAndIdempotent() {
+        HyperLogLog left = new HyperLogLog(12);
+        HyperLogLog right = new HyperLogLog(12);
+        for (int i = 0; i < 20_000; i++) {
+            left.offer(HyperLogLog.hash("viewer-" + i));
+            right.offer(HyperLogLog.hash("viewer-" + (i + 10_000)));
+        }
+
+        assertTrue(left.merge(right));
+        assertFalse(left.merge(right));
+        assertEquals(30_000, left.estimate(), 30_000 * 0.065);
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        sketch.offer(HyperLogLog.hash("viewer"));
+
+        byte[] bytes = sketch.toBytes();
+
+        assertEquals(4097, bytes.length);
+        assertEquals(sketch, HyperLogLog.fromBytes(bytes));
+    }
+}
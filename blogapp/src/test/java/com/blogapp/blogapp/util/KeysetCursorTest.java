@@ -0,0 +1,30 @@
+package com.blogapp.blogapp.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsToTheMicrosecondAsAUrlSafeString() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 6, 1, 9, 30, 5, 123_456_000), 42L);
+
+        String encoded = cursor.encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+        assertEquals(cursor, KeysetCursor.decode(encoded));
+    }
+
+    @Test
+    void rejectsStringsThatAreNotCursors() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("MjAyNQ"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(
+                new KeysetCursor(LocalDateTime.of(2025, 6, 1, 9, 30), 42L).encode().substring(4)));
+    }
+}
@@ -151,9 +151,14 @@ export const commentAPI = {
       throw error.response?.data || { message: 'Failed to delete comment' };
     }
   },
-  getUserComments: async (userId) => {
+  // One page, newest first; pass the returned next as cursor for the following one
+  getUserComments: async (userId, cursor = null, limit = 20) => {
     try {
-      const response = await api.get(`/users/${userId}/comments`);
+      const params = new URLSearchParams({ limit });
+      if (cursor) {
+        params.append('cursor', cursor);
+      }
+      const response = await api.get(`/users/${userId}/comments?${params}`);
       return response.data;
     } catch (error) {
       throw error.response?.data || { message: 'Failed to fetch user comments' };